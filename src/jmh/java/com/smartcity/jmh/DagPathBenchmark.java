@@ -0,0 +1,35 @@
+package com.smartcity.jmh;
+
+import com.smartcity.common.Graph;
+import com.smartcity.graph.dagsp.DAGShortestPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Single-source shortest and critical paths on random DAGs.
+ * The solver is shared, so its query plan is built during warmup and reused,
+ * as it is for repeated queries in the application.
+ */
+@State(Scope.Benchmark)
+public class DagPathBenchmark extends GraphBenchmark {
+    private DAGShortestPath solver;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Graph dag = generate(false);
+        solver = new DAGShortestPath(dag, newMetrics());
+    }
+
+    @Benchmark
+    public DAGShortestPath.PathResult shortestPaths() {
+        return solver.shortestPaths(0);
+    }
+
+    @Benchmark
+    public DAGShortestPath.CriticalPathResult findCriticalPath() {
+        return solver.findCriticalPath(0);
+    }
+}
@@ -0,0 +1,58 @@
+package com.smartcity.jmh;
+
+import com.smartcity.common.Graph;
+import com.smartcity.common.Metrics;
+import com.smartcity.common.MetricsFactory;
+import com.smartcity.util.DatasetGenerator;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared parameters of the graph benchmarks: generated graphs of 10^3 to 10^7 edges
+ * at several average out-degrees, with a fixed seed so every fork sees the same graph.
+ * Deep DFS recursion on large sparse graphs needs the enlarged thread stack.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xss1g", "-Xmx8g"})
+public abstract class GraphBenchmark {
+    private static final long SEED = 42;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int edges;
+
+    /** Edges per vertex; the vertex count is edges / avgDegree */
+    @Param({"2", "8", "32"})
+    public int avgDegree;
+
+    /** MetricsFactory name; no_op measures the algorithms without instrumentation */
+    @Param({"no_op"})
+    public String metrics;
+
+    /**
+     * Generate the graph described by the parameters
+     */
+    protected Graph generate(boolean hasCycles) {
+        int n = Math.max(2, edges / avgDegree);
+        return new DatasetGenerator(SEED).generateGraph(n, edges, hasCycles);
+    }
+
+    /**
+     * Create a metrics instance for one algorithm run
+     */
+    protected Metrics newMetrics() {
+        return MetricsFactory.fromName(metrics).create();
+    }
+}
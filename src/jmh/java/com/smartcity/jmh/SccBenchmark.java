@@ -0,0 +1,37 @@
+package com.smartcity.jmh;
+
+import com.smartcity.common.Graph;
+import com.smartcity.graph.scc.TarjanSCC;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Tarjan SCC and condensation on random graphs with cycles
+ */
+@State(Scope.Benchmark)
+public class SccBenchmark extends GraphBenchmark {
+    private Graph graph;
+    private TarjanSCC condenser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = generate(true);
+        condenser = new TarjanSCC(graph, newMetrics());
+        condenser.findComponents();
+    }
+
+    @Benchmark
+    public List<List<Integer>> findSCCs() {
+        return new TarjanSCC(graph, newMetrics()).findSCCs();
+    }
+
+    @Benchmark
+    public Graph buildCondensationGraph() {
+        return condenser.buildCondensationGraph();
+    }
+}
@@ -0,0 +1,34 @@
+package com.smartcity.jmh;
+
+import com.smartcity.common.Graph;
+import com.smartcity.graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Kahn and DFS topological sort on random DAGs
+ */
+@State(Scope.Benchmark)
+public class TopologicalSortBenchmark extends GraphBenchmark {
+    private Graph dag;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dag = generate(false);
+    }
+
+    @Benchmark
+    public List<Integer> sort() {
+        return new TopologicalSort(dag, newMetrics()).sort();
+    }
+
+    @Benchmark
+    public List<Integer> sortDFS() {
+        return new TopologicalSort(dag, newMetrics()).sortDFS();
+    }
+}
@@ -1,9 +1,12 @@
 package com.smartcity;
 
 import com.smartcity.common.*;
-import com.smartcity.graph.scc.TarjanSCC;
+import com.smartcity.graph.scc.SCCAlgorithm;
+import com.smartcity.graph.scc.SCCFinder;
+import com.smartcity.graph.scc.SccResult;
 import com.smartcity.graph.topo.TopologicalSort;
 import com.smartcity.graph.dagsp.DAGShortestPath;
+import com.smartcity.graph.dagsp.DagPlan;
 
 import java.io.IOException;
 import java.util.List;
@@ -31,8 +34,8 @@ public class Main {
 
             // Load graph
             System.out.println("Loading graph from: " + filename);
-            GraphLoader.GraphData data = GraphLoader.loadFromFile(filename);
-            Graph graph = data.graph;
+            GraphLoader.GraphData data = GraphLoader.load(filename);
+            GraphView graph = data.graph;
             int source = data.source;
 
             System.out.println(graph);
@@ -42,11 +45,13 @@ public class Main {
 
             // 1. Find Strongly Connected Components
             System.out.println("=".repeat(60));
-            System.out.println("1. STRONGLY CONNECTED COMPONENTS (Tarjan's Algorithm)");
+            SCCAlgorithm sccAlgorithm = SCCAlgorithm.fromSystemProperty();
+            System.out.println("1. STRONGLY CONNECTED COMPONENTS (" + sccAlgorithm.getDisplayName() + ")");
             System.out.println("=".repeat(60));
 
-            TarjanSCC sccFinder = new TarjanSCC(graph);
-            List<List<Integer>> sccs = sccFinder.findSCCs();
+            SCCFinder sccFinder = sccAlgorithm.create(graph);
+            SccResult components = sccFinder.findComponents();
+            List<List<Integer>> sccs = components.asLists();
 
             System.out.println("Found " + sccs.size() + " strongly connected components:");
             for (int i = 0; i < sccs.size(); i++) {
@@ -75,11 +80,20 @@ public class Main {
                 System.out.println("Topological order of SCCs: " + topoOrder);
 
                 // Expand to original vertices
-                List<Integer> expandedOrder = TopologicalSort.expandSCCOrder(topoOrder, sccs);
+                List<Integer> expandedOrder = TopologicalSort.expandSCCOrder(topoOrder, components);
                 System.out.println("Expanded order (original vertices): " + expandedOrder);
                 System.out.println();
 
                 topoSort.getMetrics().printSummary();
+                System.out.println();
+
+                // Levels of SCCs that can be dispatched in parallel
+                TopologicalSort layerSort = new TopologicalSort(condensation);
+                TopologicalSort.Layers layers = layerSort.sortLayers();
+                System.out.println("Parallel dispatch levels: " + layers.getLevelCount());
+                for (int k = 0; k < layers.getLevelCount(); k++) {
+                    System.out.printf("  Level %d (width %d): %s\n", k, layers.getLevelWidth(k), layers.getLevel(k));
+                }
             } else {
                 System.out.println("ERROR: Cycle detected in condensation graph!");
             }
@@ -95,7 +109,9 @@ public class Main {
                 int[] vertexToSCC = sccFinder.getVertexToSCCMapping();
                 int sccSource = vertexToSCC[source];
 
-                DAGShortestPath dagSP = new DAGShortestPath(condensation);
+                // One plan (topological order) shared by all path queries
+                DagPlan plan = new DagPlan(condensation);
+                DAGShortestPath dagSP = new DAGShortestPath(plan);
 
                 // Shortest paths
                 System.out.println("Computing shortest paths from SCC " + sccSource + "...");
@@ -119,7 +135,7 @@ public class Main {
                 System.out.println("4. CRITICAL PATH (Longest Path)");
                 System.out.println("=".repeat(60));
 
-                DAGShortestPath dagLP = new DAGShortestPath(condensation);
+                DAGShortestPath dagLP = new DAGShortestPath(plan);
                 DAGShortestPath.CriticalPathResult criticalPath =
                         dagLP.findCriticalPath(sccSource);
 
@@ -1,9 +1,18 @@
 package com.smartcity.benchmark;
 
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 import com.smartcity.common.Graph;
+import com.smartcity.common.GraphCache;
 import com.smartcity.common.GraphLoader;
+import com.smartcity.common.GraphView;
 import com.smartcity.common.Metrics;
 import com.smartcity.graph.dagsp.DAGShortestPath;
+import com.smartcity.graph.scc.ParallelSCC;
+import com.smartcity.graph.scc.SCCAlgorithm;
+import com.smartcity.graph.scc.SCCFinder;
+import com.smartcity.graph.scc.SccResult;
 import com.smartcity.graph.scc.TarjanSCC;
 import com.smartcity.graph.topo.TopologicalSort;
 
@@ -11,14 +20,76 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Benchmark runner that executes all datasets and outputs results in CSV format.
  * Measures performance metrics for SCC, Topological Sort, and DAG Shortest Path algorithms.
  */
 public class BenchmarkRunner {
+    /** System property naming the graph cache directory */
+    public static final String CACHE_DIR_PROPERTY = "graph.cache.dir";
+    /** System property setting how many datasets are loaded ahead of the one being measured */
+    public static final String PREFETCH_PROPERTY = "benchmark.prefetch";
+    /** System property setting how many unreported warmup passes run over all datasets */
+    public static final String WARMUP_PROPERTY = "benchmark.warmup";
+    /** System property setting how many measured passes feed the latency histograms */
+    public static final String ITERATIONS_PROPERTY = "benchmark.iterations";
+
+    private static final int DEFAULT_PREFETCH = 2;
+    static final int DEFAULT_WARMUP = 5;
+    static final int DEFAULT_ITERATIONS = 10;
+
+    /** Statistics reported per phase when a result has latency histograms */
+    private static final List<String> PHASE_STATS =
+            List.of("Min", "P50", "P90", "P99", "Max", "Mean", "Stddev");
+
+    /** Stages whose allocation and GC usage is measured, as used in CSV column names */
+    private static final List<String> RESOURCE_STAGES = List.of("SCC", "PSCC", "Condense", "Topo", "DAGSP");
+
+    private final GraphCache cache;
+    private final int prefetchDepth;
+
+    /**
+     * Create a runner caching graphs under -Dgraph.cache.dir (default GraphCache.DEFAULT_DIRECTORY)
+     * and prefetching -Dbenchmark.prefetch datasets (default 2)
+     */
+    public BenchmarkRunner() {
+        this(new GraphCache(Paths.get(System.getProperty(CACHE_DIR_PROPERTY, GraphCache.DEFAULT_DIRECTORY))),
+                Integer.getInteger(PREFETCH_PROPERTY, DEFAULT_PREFETCH));
+    }
+
+    /**
+     * Create a runner loading graphs through the given cache
+     * @param cache graph loader cache
+     * @param prefetchDepth datasets loaded ahead of the one being measured; 0 disables prefetching
+     */
+    public BenchmarkRunner(GraphCache cache, int prefetchDepth) {
+        if (prefetchDepth < 0) {
+            throw new IllegalArgumentException("prefetchDepth must be non-negative: " + prefetchDepth);
+        }
+        this.cache = cache;
+        this.prefetchDepth = prefetchDepth;
+    }
 
     /**
      * Result of running all algorithms on a single dataset
@@ -30,6 +101,10 @@ public class BenchmarkRunner {
         public double density;
         public boolean hasCycles;
 
+        // Graph loading, reported apart from algorithm time
+        public long loadTimeNanos;
+        public String loadSource;
+
         // SCC metrics
         public long sccTimeNanos;
         public long sccDfsVisits;
@@ -37,6 +112,12 @@ public class BenchmarkRunner {
         public long sccStackPops;
         public int numSCCs;
 
+        // Parallel forward-backward SCC metrics (compared against Tarjan)
+        public long psccTimeNanos;
+        public long psccTrimmed;
+        public long psccPivots;
+        public int psccNumSCCs;
+
         // Topological Sort metrics
         public long topoTimeNanos;
         public long topoQueuePushes;
@@ -50,25 +131,96 @@ public class BenchmarkRunner {
         public long dagspUpdates;
         public int criticalPathLength;
 
+        // Allocation, GC and peak heap per stage in RESOURCE_STAGES (missing if it did not run)
+        public final Map<String, ResourceUsage> resources = new LinkedHashMap<>();
+
+        // Total nanoseconds per phase path (e.g. "scc.dfs", "topo.kahn") across all stages
+        public final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+
+        // Per-phase latencies over all measured iterations; empty for a single run
+        public final Map<String, LatencyHistogram> phaseHistograms = new LinkedHashMap<>();
+        public int iterations = 1;
+
+        // Raw samples per measured iteration, keyed by CSV column (e.g. "SCC_Time_Nanos",
+        // "Phase_scc.dfs_Nanos"); written to the JSON results file for regression checks
+        public final Map<String, List<Long>> samples = new LinkedHashMap<>();
+
+        // Forked runs: number of JVMs merged into this result and, per phase, the
+        // standard deviation of the per-fork medians
+        public int forks = 1;
+        public final Map<String, Double> phaseForkStddevNanos = new LinkedHashMap<>();
+
         public BenchmarkResult(String dataset) {
             this.dataset = dataset;
         }
 
+        /**
+         * Convert result to CSV row followed by one column per phase (0 if it did not run)
+         * @param phases phase paths, in the order used by getCSVHeader(phases)
+         */
+        public String toCSV(List<String> phases) {
+            return toCSV(phases, false);
+        }
+
+        /**
+         * Convert result to CSV row with one column per phase and, if stats is set,
+         * min/p50/p90/p99/max/mean/stddev columns per phase (0 if it did not run)
+         * @param phases phase paths, in the order used by getCSVHeader(phases, stats)
+         */
+        public String toCSV(List<String> phases, boolean stats) {
+            return toCSV(phases, stats, false);
+        }
+
+        /**
+         * Convert result to CSV row as toCSV(phases, stats), followed by a Forks column and
+         * the fork-to-fork standard deviation of every phase if forkStats is set
+         * @param phases phase paths, in the order used by getCSVHeader(phases, stats, forkStats)
+         */
+        public String toCSV(List<String> phases, boolean stats, boolean forkStats) {
+            StringBuilder sb = new StringBuilder(toCSV());
+            for (String phase : phases) {
+                sb.append(',').append(phaseNanos.getOrDefault(phase, 0L));
+            }
+            if (stats) {
+                sb.append(',').append(iterations);
+                for (String phase : phases) {
+                    LatencyHistogram h = phaseHistograms.getOrDefault(phase, new LatencyHistogram());
+                    sb.append(String.format(Locale.ROOT, ",%d,%d,%d,%d,%d,%.1f,%.1f",
+                            h.getMin(), h.getPercentile(50), h.getPercentile(90), h.getPercentile(99),
+                            h.getMax(), h.getMean(), h.getStdDev()));
+                }
+            }
+            if (forkStats) {
+                sb.append(',').append(forks);
+                for (String phase : phases) {
+                    sb.append(String.format(Locale.ROOT, ",%.1f", phaseForkStddevNanos.getOrDefault(phase, 0.0)));
+                }
+            }
+            return sb.toString();
+        }
+
         /**
          * Convert result to CSV row
          */
         public String toCSV() {
-            return String.format("%s,%d,%d,%.4f,%b,%d,%d,%d,%d,%d,%d,%d,%d,%d,%b,%d,%d,%d,%d",
+            // Locale.ROOT: a comma decimal separator would split Density into two columns
+            return String.format(Locale.ROOT, "%s,%d,%d,%.4f,%b,%d,%s,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%b,%d,%d,%d,%d",
                     dataset,
                     nodes,
                     edges,
                     density,
                     hasCycles,
+                    loadTimeNanos,
+                    loadSource,
                     sccTimeNanos,
                     sccDfsVisits,
                     sccEdgesExplored,
                     sccStackPops,
                     numSCCs,
+                    psccTimeNanos,
+                    psccTrimmed,
+                    psccPivots,
+                    psccNumSCCs,
                     topoTimeNanos,
                     topoQueuePushes,
                     topoQueuePops,
@@ -78,7 +230,60 @@ public class BenchmarkRunner {
                     dagspRelaxations,
                     dagspUpdates,
                     criticalPathLength
-            );
+            ) + resourcesToCSV();
+        }
+
+        private String resourcesToCSV() {
+            StringBuilder sb = new StringBuilder();
+            for (String stage : RESOURCE_STAGES) {
+                ResourceUsage usage = resources.getOrDefault(stage, ResourceUsage.NONE);
+                sb.append(',').append(usage.allocatedBytes)
+                        .append(',').append(usage.gcCount)
+                        .append(',').append(usage.gcTimeMillis)
+                        .append(',').append(usage.peakHeapBytes);
+            }
+            return sb.toString();
+        }
+
+        /**
+         * CSV header followed by one Phase_<path>_Nanos column per phase
+         */
+        public static String getCSVHeader(List<String> phases) {
+            return getCSVHeader(phases, false);
+        }
+
+        /**
+         * CSV header followed by one Phase_<path>_Nanos column per phase and, if stats
+         * is set, an Iterations column and Phase_<path>_<Stat>_Nanos columns
+         */
+        public static String getCSVHeader(List<String> phases, boolean stats) {
+            return getCSVHeader(phases, stats, false);
+        }
+
+        /**
+         * CSV header as getCSVHeader(phases, stats), followed by Forks and
+         * Phase_<path>_Fork_Stddev_Nanos columns if forkStats is set
+         */
+        public static String getCSVHeader(List<String> phases, boolean stats, boolean forkStats) {
+            StringBuilder sb = new StringBuilder(getCSVHeader());
+            for (String phase : phases) {
+                sb.append(",Phase_").append(phase).append("_Nanos");
+            }
+            if (stats) {
+                sb.append(",Iterations");
+                for (String phase : phases) {
+                    for (String stat : PHASE_STATS) {
+                        sb.append(",Phase_").append(phase).append('_').append(stat).append("_Nanos");
+                    }
+                }
+            }
+            if (forkStats) {
+                sb.append(",Forks");
+                for (String phase : phases) {
+                    sb.append(",Phase_").append(phase).append("_Fork_Stddev_Nanos");
+                }
+            }
+            return sb.toString();
         }
 
         /**
@@ -86,46 +291,108 @@ public class BenchmarkRunner {
          */
         public static String getCSVHeader() {
             return "Dataset,Nodes,Edges,Density,HasCycles," +
+                    "Load_Time_Nanos,Load_Source," +
                     "SCC_Time_Nanos,SCC_DFS_Visits,SCC_Edges_Explored,SCC_Stack_Pops,Num_SCCs," +
+                    "PSCC_Time_Nanos,PSCC_Trimmed,PSCC_Pivots,PSCC_Num_SCCs," +
                     "Topo_Time_Nanos,Topo_Queue_Pushes,Topo_Queue_Pops,Topo_Edges_Processed,Topo_Success," +
-                    "DAGSP_Time_Nanos,DAGSP_Relaxations,DAGSP_Updates,Critical_Path_Length";
+                    "DAGSP_Time_Nanos,DAGSP_Relaxations,DAGSP_Updates,Critical_Path_Length" +
+                    resourcesHeader();
+        }
+
+        private static String resourcesHeader() {
+            StringBuilder sb = new StringBuilder();
+            for (String stage : RESOURCE_STAGES) {
+                sb.append(',').append(stage).append("_Alloc_Bytes")
+                        .append(',').append(stage).append("_GC_Count")
+                        .append(',').append(stage).append("_GC_Time_Millis")
+                        .append(',').append(stage).append("_Peak_Heap_Bytes");
+            }
+            return sb.toString();
         }
     }
 
     /**
-     * Run benchmark on a single dataset
+     * Run benchmark on a single dataset, loading it on the calling thread
      */
     public BenchmarkResult runBenchmark(String filename) {
-        BenchmarkResult result = new BenchmarkResult(new File(filename).getName());
+        String dataset = new File(filename).getName();
+        GraphCache.LoadResult loaded;
+        try {
+            loaded = cache.load(filename);
+        } catch (IOException e) {
+            System.err.println("Error loading " + filename + ": " + e.getMessage());
+            return new BenchmarkResult(dataset);
+        }
+        return measure(dataset, loaded);
+    }
+
+    /**
+     * Run all algorithms on an already loaded dataset
+     * @param dataset name reported in the result
+     * @param loaded graph and its load statistics
+     */
+    public BenchmarkResult measure(String dataset, GraphCache.LoadResult loaded) {
+        BenchmarkResult result = measure(dataset, loaded.data);
+        result.loadTimeNanos = loaded.loadTimeNanos;
+        result.loadSource = loaded.source.name();
+        return result;
+    }
+
+    /**
+     * Run all algorithms on a graph that was not loaded from a file (e.g. generated)
+     * @param dataset name reported in the result
+     * @param data graph, source vertex and weight model
+     */
+    public BenchmarkResult measure(String dataset, GraphLoader.GraphData data) {
+        BenchmarkResult result = new BenchmarkResult(dataset);
 
         try {
-            // Load graph
-            GraphLoader.GraphData data = GraphLoader.loadFromFile(filename);
-            Graph graph = data.graph;
+            GraphView graph = data.graph;
             int source = data.source;
 
             result.nodes = graph.getN();
             result.edges = graph.getEdgeCount();
             result.density = calculateDensity(result.nodes, result.edges);
 
-            // 1. Run SCC detection
-            TarjanSCC sccFinder = new TarjanSCC(graph);
-            List<List<Integer>> sccs = sccFinder.findSCCs();
-            Metrics sccMetrics = sccFinder.getMetrics();
+            // 1. Run SCC detection (Tarjan baseline)
+            TarjanSCC tarjan = new TarjanSCC(graph);
+            ResourceUsage.Probe probe = ResourceUsage.start();
+            SccResult sccs = tarjan.findComponents();
+            result.resources.put("SCC", probe.stop());
+            Metrics sccMetrics = tarjan.getMetrics();
 
-            result.numSCCs = sccs.size();
+            result.numSCCs = sccs.getComponentCount();
             result.sccTimeNanos = sccMetrics.getElapsedNanos();
             result.sccDfsVisits = sccMetrics.getCount("dfs_visits");
             result.sccEdgesExplored = sccMetrics.getCount("edges_explored");
             result.sccStackPops = sccMetrics.getCount("stack_pops");
             result.hasCycles = (result.numSCCs < result.nodes);
 
+            // Parallel forward-backward SCC on the same graph
+            ParallelSCC parallel = new ParallelSCC(graph);
+            probe = ResourceUsage.start();
+            result.psccNumSCCs = parallel.findComponents().getComponentCount();
+            result.resources.put("PSCC", probe.stop());
+            Metrics psccMetrics = parallel.getMetrics();
+            result.psccTimeNanos = psccMetrics.getElapsedNanos();
+            result.psccTrimmed = psccMetrics.getCount("trimmed");
+            result.psccPivots = psccMetrics.getCount("pivots");
+
+            // Downstream stages use the algorithm selected with -Dscc.algorithm
+            SCCFinder sccFinder = SCCAlgorithm.fromSystemProperty() == SCCAlgorithm.PARALLEL ? parallel : tarjan;
+
             // 2. Build condensation graph
+            probe = ResourceUsage.start();
             Graph condensation = sccFinder.buildCondensationGraph();
+            result.resources.put("Condense", probe.stop());
+            result.phaseNanos.putAll(sccMetrics.getPhases());
+            result.phaseNanos.putAll(psccMetrics.getPhases());
 
             // 3. Run Topological Sort on condensation
             TopologicalSort topoSort = new TopologicalSort(condensation);
+            probe = ResourceUsage.start();
             List<Integer> topoOrder = topoSort.sort();
+            result.resources.put("Topo", probe.stop());
             Metrics topoMetrics = topoSort.getMetrics();
 
             result.topoSuccess = (topoOrder != null);
@@ -133,6 +400,7 @@ public class BenchmarkRunner {
             result.topoQueuePushes = topoMetrics.getCount("queue_pushes");
             result.topoQueuePops = topoMetrics.getCount("queue_pops");
             result.topoEdgesProcessed = topoMetrics.getCount("edges_processed");
+            result.phaseNanos.putAll(topoMetrics.getPhases());
 
             // 4. Run DAG Shortest Path (if topological sort succeeded)
             if (topoOrder != null && condensation.getN() > 0) {
@@ -141,17 +409,20 @@ public class BenchmarkRunner {
                 int sccSource = vertexToSCC[source];
 
                 DAGShortestPath dagsp = new DAGShortestPath(condensation);
+                probe = ResourceUsage.start();
                 DAGShortestPath.CriticalPathResult criticalPath = dagsp.findCriticalPath(sccSource);
+                result.resources.put("DAGSP", probe.stop());
                 Metrics dagspMetrics = dagsp.getMetrics();
 
                 result.dagspTimeNanos = dagspMetrics.getElapsedNanos();
                 result.dagspRelaxations = dagspMetrics.getCount("relaxations");
                 result.dagspUpdates = dagspMetrics.getCount("updates");
+                result.phaseNanos.putAll(dagspMetrics.getPhases());
                 result.criticalPathLength = criticalPath.length;
             }
 
         } catch (Exception e) {
-            System.err.println("Error processing " + filename + ": " + e.getMessage());
+            System.err.println("Error processing " + dataset + ": " + e.getMessage());
             e.printStackTrace();
         }
 
@@ -163,7 +434,7 @@ public class BenchmarkRunner {
      */
     private double calculateDensity(int nodes, int edges) {
         if (nodes <= 1) return 0.0;
-        int maxEdges = nodes * (nodes - 1); // For directed graph
+        long maxEdges = (long) nodes * (nodes - 1); // For directed graph
         return (double) edges / maxEdges;
     }
 
@@ -171,52 +442,218 @@ public class BenchmarkRunner {
      * Run benchmarks on all datasets in a directory
      */
     public List<BenchmarkResult> runAllBenchmarks(String dataDirectory) {
-        List<BenchmarkResult> results = new ArrayList<>();
+        return runAllBenchmarks(listDatasets(dataDirectory));
+    }
 
+    /**
+     * JSON datasets in a directory, sorted by name
+     * @return the files, or an empty array (with a message) if there are none
+     */
+    public static File[] listDatasets(String dataDirectory) {
         File dir = new File(dataDirectory);
         if (!dir.exists() || !dir.isDirectory()) {
             System.err.println("Directory not found: " + dataDirectory);
-            return results;
+            return new File[0];
         }
 
         File[] files = dir.listFiles((d, name) -> name.endsWith(".json"));
         if (files == null || files.length == 0) {
             System.err.println("No JSON files found in: " + dataDirectory);
+            return new File[0];
+        }
+        Arrays.sort(files);
+        return files;
+    }
+
+    /**
+     * Run benchmarks on the given dataset files
+     */
+    public List<BenchmarkResult> runAllBenchmarks(File[] files) {
+        List<BenchmarkResult> results = new ArrayList<>();
+        if (files.length == 0) {
             return results;
         }
 
         System.out.println("Running benchmarks on " + files.length + " datasets...");
         System.out.println();
 
-        for (File file : files) {
-            System.out.println("Processing: " + file.getName());
-            BenchmarkResult result = runBenchmark(file.getAbsolutePath());
-            results.add(result);
+        // Loads run up to prefetchDepth files ahead on low-priority loader threads;
+        // every measurement runs on the same dedicated thread, one at a time
+        ExecutorService loader = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(prefetchDepth, files.length)),
+                threadFactory("benchmark-loader", Thread.MIN_PRIORITY));
+        ExecutorService measurer = Executors.newSingleThreadExecutor(
+                threadFactory("benchmark-measure", Thread.MAX_PRIORITY));
+        Deque<Future<GraphCache.LoadResult>> pending = new ArrayDeque<>();
+        int nextLoad = 0;
 
-            // Print summary
-            System.out.printf("  Nodes: %d, Edges: %d, Density: %.4f%n",
-                    result.nodes, result.edges, result.density);
-            System.out.printf("  SCCs: %d, Has Cycles: %b%n",
-                    result.numSCCs, result.hasCycles);
-            System.out.printf("  Times (ns): SCC=%d, Topo=%d, DAGSP=%d%n",
-                    result.sccTimeNanos, result.topoTimeNanos, result.dagspTimeNanos);
-            System.out.println();
+        try {
+            for (File file : files) {
+                // Keep the current file plus up to prefetchDepth more in flight
+                while (nextLoad < files.length && pending.size() <= prefetchDepth) {
+                    String path = files[nextLoad++].getAbsolutePath();
+                    pending.add(loader.submit(() -> cache.load(path)));
+                }
+
+                System.out.println("Processing: " + file.getName());
+                BenchmarkResult result = awaitAndMeasure(file, pending.poll(), measurer);
+                if (result == null) {
+                    break; // Interrupted
+                }
+                results.add(result);
+
+                // Print summary
+                System.out.printf("  Nodes: %d, Edges: %d, Density: %.4f%n",
+                        result.nodes, result.edges, result.density);
+                System.out.printf("  SCCs: %d, Has Cycles: %b%n",
+                        result.numSCCs, result.hasCycles);
+                System.out.printf("  Load (ns): %d from %s%n", result.loadTimeNanos, result.loadSource);
+                System.out.printf("  Times (ns): SCC=%d, ParallelSCC=%d, Topo=%d, DAGSP=%d%n",
+                        result.sccTimeNanos, result.psccTimeNanos, result.topoTimeNanos, result.dagspTimeNanos);
+                System.out.println();
+            }
+        } finally {
+            loader.shutdownNow();
+            measurer.shutdown();
         }
 
         return results;
     }
 
+    /**
+     * Run all datasets warmup times without reporting, then iterations times while
+     * recording every phase into per-dataset latency histograms.
+     * Time and phase columns of the returned results are medians over the measured
+     * iterations; operation counts and resource usage come from the last one.
+     * @param dataDirectory directory of JSON datasets
+     * @param warmup unreported passes letting the JIT compile the algorithms
+     * @param iterations measured passes, at least 1
+     * @return one result per dataset with phaseHistograms filled in
+     */
+    public List<BenchmarkResult> runIterations(String dataDirectory, int warmup, int iterations) {
+        return runIterations(listDatasets(dataDirectory), warmup, iterations);
+    }
+
+    /**
+     * Run the given dataset files with warmup and measured passes, as runIterations(String, int, int)
+     */
+    public List<BenchmarkResult> runIterations(File[] files, int warmup, int iterations) {
+        if (warmup < 0 || iterations < 1) {
+            throw new IllegalArgumentException("Need warmup >= 0 and iterations >= 1: "
+                    + warmup + ", " + iterations);
+        }
+        for (int i = 1; i <= warmup; i++) {
+            System.out.printf("=== Warmup %d/%d ===%n", i, warmup);
+            runAllBenchmarks(files);
+        }
+
+        Map<String, BenchmarkResult> aggregated = new LinkedHashMap<>();
+        Map<String, Map<String, LatencyHistogram>> stageHistograms = new LinkedHashMap<>();
+        for (int i = 1; i <= iterations; i++) {
+            System.out.printf("=== Iteration %d/%d ===%n", i, iterations);
+            for (BenchmarkResult result : runAllBenchmarks(files)) {
+                BenchmarkResult previous = aggregated.put(result.dataset, result);
+                if (previous != null) {
+                    result.phaseHistograms.putAll(previous.phaseHistograms);
+                    result.samples.putAll(previous.samples);
+                }
+                result.iterations = i;
+                result.phaseNanos.forEach((phase, nanos) -> {
+                    result.phaseHistograms.computeIfAbsent(phase, k -> new LatencyHistogram()).record(nanos);
+                    addSample(result, "Phase_" + phase + "_Nanos", nanos);
+                });
+                addSample(result, "SCC_Time_Nanos", result.sccTimeNanos);
+                addSample(result, "PSCC_Time_Nanos", result.psccTimeNanos);
+                addSample(result, "Topo_Time_Nanos", result.topoTimeNanos);
+                addSample(result, "DAGSP_Time_Nanos", result.dagspTimeNanos);
+
+                Map<String, LatencyHistogram> stages = stageHistograms.computeIfAbsent(
+                        result.dataset, k -> new LinkedHashMap<>());
+                recordStage(stages, "load", result.loadTimeNanos);
+                recordStage(stages, "scc", result.sccTimeNanos);
+                recordStage(stages, "pscc", result.psccTimeNanos);
+                recordStage(stages, "topo", result.topoTimeNanos);
+                recordStage(stages, "dagsp", result.dagspTimeNanos);
+            }
+        }
+
+        for (BenchmarkResult result : aggregated.values()) {
+            result.phaseHistograms.forEach((phase, h) -> result.phaseNanos.put(phase, h.getPercentile(50)));
+            Map<String, LatencyHistogram> stages = stageHistograms.get(result.dataset);
+            result.loadTimeNanos = stages.get("load").getPercentile(50);
+            result.sccTimeNanos = stages.get("scc").getPercentile(50);
+            result.psccTimeNanos = stages.get("pscc").getPercentile(50);
+            result.topoTimeNanos = stages.get("topo").getPercentile(50);
+            result.dagspTimeNanos = stages.get("dagsp").getPercentile(50);
+        }
+        return new ArrayList<>(aggregated.values());
+    }
+
+    private static void recordStage(Map<String, LatencyHistogram> stages, String stage, long nanos) {
+        stages.computeIfAbsent(stage, k -> new LatencyHistogram()).record(nanos);
+    }
+
+    private static void addSample(BenchmarkResult result, String metric, long nanos) {
+        result.samples.computeIfAbsent(metric, k -> new ArrayList<>()).add(nanos);
+    }
+
+    /**
+     * Wait for a prefetched load, then measure it on the measurement thread
+     * @return the result, or null if the calling thread was interrupted
+     */
+    private BenchmarkResult awaitAndMeasure(File file, Future<GraphCache.LoadResult> load,
+                                            ExecutorService measurer) {
+        try {
+            GraphCache.LoadResult loaded;
+            try {
+                loaded = load.get();
+            } catch (ExecutionException e) {
+                System.err.println("Error loading " + file + ": " + e.getCause().getMessage());
+                return new BenchmarkResult(file.getName());
+            }
+            return measurer.submit(() -> measure(file.getName(), loaded)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            // measure() handles its own errors; anything else is a bug
+            throw new IllegalStateException("Measurement failed for " + file, e.getCause());
+        }
+    }
+
+    /**
+     * Named daemon threads with a fixed priority
+     */
+    private static ThreadFactory threadFactory(String name, int priority) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(priority);
+            return thread;
+        };
+    }
+
     /**
      * Write results to CSV file
      */
     public void writeResultsToCSV(List<BenchmarkResult> results, String outputFile) {
         try (PrintWriter writer = new PrintWriter(new FileWriter(outputFile))) {
+            // Phase columns: every phase seen in any result, in first-seen order
+            Set<String> phaseSet = new LinkedHashSet<>();
+            for (BenchmarkResult result : results) {
+                phaseSet.addAll(result.phaseNanos.keySet());
+            }
+            List<String> phases = new ArrayList<>(phaseSet);
+            boolean stats = results.stream().anyMatch(r -> !r.phaseHistograms.isEmpty());
+            boolean forkStats = results.stream().anyMatch(r -> r.forks > 1);
+
             // Write header
-            writer.println(BenchmarkResult.getCSVHeader());
+            writer.println(BenchmarkResult.getCSVHeader(phases, stats, forkStats));
 
             // Write data rows
             for (BenchmarkResult result : results) {
-                writer.println(result.toCSV());
+                writer.println(result.toCSV(phases, stats, forkStats));
             }
 
             System.out.println("Results written to: " + outputFile);
@@ -227,6 +664,33 @@ public class BenchmarkRunner {
         }
     }
 
+    /**
+     * Write the raw samples of every result as JSON, the richer input for RegressionGate:
+     * {"format": 1, "datasets": {"name": {"Phase_scc.dfs_Nanos": [..], ...}}}
+     */
+    public void writeResultsToJSON(List<BenchmarkResult> results, String outputFile) {
+        JsonObject datasets = new JsonObject();
+        for (BenchmarkResult result : results) {
+            JsonObject metrics = new JsonObject();
+            result.samples.forEach((metric, values) -> {
+                JsonArray array = new JsonArray();
+                values.forEach(array::add);
+                metrics.add(metric, array);
+            });
+            datasets.add(result.dataset, metrics);
+        }
+        JsonObject root = new JsonObject();
+        root.addProperty("format", RegressionGate.JSON_FORMAT);
+        root.add("datasets", datasets);
+
+        try (Writer writer = Files.newBufferedWriter(Paths.get(outputFile), StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(root, writer);
+            System.out.println("Samples written to: " + outputFile);
+        } catch (IOException e) {
+            System.err.println("Error writing JSON file: " + e.getMessage());
+        }
+    }
+
     /**
      * Print summary statistics
      */
@@ -272,14 +736,43 @@ public class BenchmarkRunner {
         // Overall statistics
         System.out.println("Overall Averages:");
         long avgSccTime = (long) results.stream().mapToLong(r -> r.sccTimeNanos).average().orElse(0);
+        long avgPsccTime = (long) results.stream().mapToLong(r -> r.psccTimeNanos).average().orElse(0);
         long avgTopoTime = (long) results.stream().mapToLong(r -> r.topoTimeNanos).average().orElse(0);
         long avgDagspTime = (long) results.stream().mapToLong(r -> r.dagspTimeNanos).average().orElse(0);
 
         System.out.printf("  SCC Time: %,d ns (%.3f ms)%n", avgSccTime, avgSccTime / 1_000_000.0);
+        System.out.printf("  Parallel SCC Time: %,d ns (%.3f ms, %.2fx vs Tarjan)%n",
+                avgPsccTime, avgPsccTime / 1_000_000.0,
+                avgPsccTime == 0 ? 0.0 : (double) avgSccTime / avgPsccTime);
         System.out.printf("  Topo Time: %,d ns (%.3f ms)%n", avgTopoTime, avgTopoTime / 1_000_000.0);
         System.out.printf("  DAGSP Time: %,d ns (%.3f ms)%n", avgDagspTime, avgDagspTime / 1_000_000.0);
         System.out.println();
 
+        // Graph loading
+        long avgLoadTime = (long) results.stream().mapToLong(r -> r.loadTimeNanos).average().orElse(0);
+        Metrics cacheMetrics = cache.getMetrics();
+        System.out.println("Graph Loading:");
+        System.out.printf("  Load Time: %,d ns (%.3f ms)%n", avgLoadTime, avgLoadTime / 1_000_000.0);
+        System.out.printf("  Cache: %d memory hits, %d disk hits, %d misses%n",
+                cacheMetrics.getCount("memory_hits"), cacheMetrics.getCount("disk_hits"),
+                cacheMetrics.getCount("misses"));
+        System.out.println();
+
+        // Allocation and GC per stage
+        System.out.println("Allocation & GC (averages):");
+        for (String stage : RESOURCE_STAGES) {
+            List<ResourceUsage> usages = new ArrayList<>();
+            for (BenchmarkResult r : results) {
+                usages.add(r.resources.getOrDefault(stage, ResourceUsage.NONE));
+            }
+            System.out.printf("  %s: %,d bytes allocated, %.2f GCs, %.2f ms GC, %,d bytes peak heap%n", stage,
+                    (long) usages.stream().mapToLong(u -> u.allocatedBytes).average().orElse(0),
+                    usages.stream().mapToLong(u -> u.gcCount).average().orElse(0),
+                    usages.stream().mapToLong(u -> u.gcTimeMillis).average().orElse(0),
+                    (long) usages.stream().mapToLong(u -> u.peakHeapBytes).average().orElse(0));
+        }
+        System.out.println();
+
         // Graphs with cycles
         long cycleCount = results.stream().filter(r -> r.hasCycles).count();
         System.out.printf("Graphs with cycles: %d / %d (%.1f%%)%n",
@@ -314,8 +807,19 @@ public class BenchmarkRunner {
 
     /**
      * Main method to run benchmarks
+     * Usage: BenchmarkRunner [dataDirectory] [output.csv], or BenchmarkRunner --sweep (see ScalingSweep.main).
+     * With -Dbenchmark.forks=N every dataset runs in N forked JVMs (see ForkedRunner);
+     * the exit status is 3 if any dataset had no successful fork.
      */
     public static void main(String[] args) {
+        if (args.length >= 1 && args[0].equals("--sweep")) {
+            ScalingSweep.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length >= 1 && args[0].equals(ForkedRunner.CHILD_FLAG)) {
+            System.exit(ForkedRunner.runChild(Arrays.copyOfRange(args, 1, args.length)));
+        }
+
         String dataDirectory = "data";
         String outputFile = "benchmark_results.csv";
 
@@ -335,32 +839,77 @@ public class BenchmarkRunner {
         System.out.println("Output File: " + outputFile);
         System.out.println();
 
-        BenchmarkRunner runner = new BenchmarkRunner();
+        int warmup = Integer.getInteger(WARMUP_PROPERTY, DEFAULT_WARMUP);
+        int iterations = Integer.getInteger(ITERATIONS_PROPERTY, DEFAULT_ITERATIONS);
+        System.out.printf("Warmup: %d, Iterations: %d%n", warmup, iterations);
+        System.out.println();
+
+        // Read the baseline before running, so it may be the file this run overwrites
+        Map<String, Map<String, RegressionGate.Summary>> baseline = null;
+        String baselineFile = System.getProperty(RegressionGate.BASELINE_PROPERTY);
+        if (baselineFile != null) {
+            try {
+                baseline = RegressionGate.loadBaseline(Paths.get(baselineFile));
+                System.out.println("Baseline: " + baselineFile);
+                System.out.println();
+            } catch (IOException e) {
+                System.err.println("Error loading baseline: " + e.getMessage());
+                System.exit(2);
+            }
+        }
 
-        // Run all benchmarks several times to minimize JVM effect on time
-        List<BenchmarkResult> results = runner.runAllBenchmarks(dataDirectory);
-        results = runner.runAllBenchmarks(dataDirectory);
-        results = runner.runAllBenchmarks(dataDirectory);
-        results = runner.runAllBenchmarks(dataDirectory);
-        results = runner.runAllBenchmarks(dataDirectory);
-        results = runner.runAllBenchmarks(dataDirectory);
-        results = runner.runAllBenchmarks(dataDirectory);
-        results = runner.runAllBenchmarks(dataDirectory);
-        results = runner.runAllBenchmarks(dataDirectory);
+        BenchmarkRunner runner = new BenchmarkRunner();
 
+        // Warm up the JIT, then measure every phase over several passes,
+        // in this JVM or in fresh JVMs per dataset
+        List<BenchmarkResult> results;
+        List<String> failed = List.of();
+        if (Integer.getInteger(ForkedRunner.FORKS_PROPERTY, 0) > 0) {
+            try {
+                ForkedRunner forked = new ForkedRunner();
+                results = forked.run(dataDirectory);
+                failed = forked.getFailedDatasets();
+            } catch (IOException e) {
+                System.err.println("Error starting forks: " + e.getMessage());
+                System.exit(2);
+                return;
+            }
+        } else {
+            results = runner.runIterations(dataDirectory, warmup, iterations);
+        }
 
         if (results.isEmpty()) {
             System.err.println("No results generated. Exiting.");
+            if (!failed.isEmpty()) {
+                System.exit(3);
+            }
             return;
         }
 
-        // Write to CSV
+        // Write to CSV, with the raw samples next to it
         runner.writeResultsToCSV(results, outputFile);
+        runner.writeResultsToJSON(results, outputFile.replaceFirst("\\.csv$", "") + ".json");
         System.out.println();
 
         // Print summary statistics
         runner.printSummaryStatistics(results);
 
+        if (baseline != null) {
+            RegressionGate gate = new RegressionGate();
+            List<RegressionGate.Comparison> comparisons =
+                    gate.compare(baseline, RegressionGate.summarize(results));
+            gate.printReport(comparisons);
+            if (RegressionGate.hasRegression(comparisons)) {
+                System.exit(1);
+            }
+        }
+
+        // Datasets without a measurement are a failed run, not a missing row
+        if (!failed.isEmpty()) {
+            System.err.println("No results for: " + String.join(", ", failed));
+            System.exit(3);
+        }
+
         System.out.println("=".repeat(80));
         System.out.println("BENCHMARK COMPLETE");
         System.out.println("=".repeat(80));
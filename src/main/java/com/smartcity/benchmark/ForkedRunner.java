@@ -0,0 +1,523 @@
+package com.smartcity.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.smartcity.common.GraphCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Runs every dataset in its own forked JVMs so JIT profiles from one dataset cannot
+ * leak into another (e.g. call sites turning megamorphic after large graphs).
+ *
+ * Each fork runs BenchmarkRunner's warmup and measured passes on one dataset with
+ * fixed heap and GC flags and writes its result as JSON. Several forks run at once
+ * (by default half the cores, fewer if free memory cannot hold their heaps), each
+ * killed after a timeout. The forks of a dataset are merged into one result:
+ * histograms and samples are combined, times become medians over all samples, and the
+ * standard deviation of the per-fork medians is kept per phase. Datasets whose forks
+ * all failed are left out and listed by getFailedDatasets().
+ *
+ * With pinning, core 0 is left to the parent and the remaining cores are split into
+ * one disjoint taskset range per concurrent fork. A fork sees only its own range as
+ * availableProcessors(), so with a single core per fork ParallelSCC and sortLayers
+ * run serially; lower benchmark.forks.parallel to give each fork more cores.
+ */
+public class ForkedRunner {
+    /** System property with the number of forks per dataset; 0 runs in-process */
+    public static final String FORKS_PROPERTY = "benchmark.forks";
+    /** System property with the number of forks running at the same time */
+    public static final String PARALLEL_PROPERTY = "benchmark.forks.parallel";
+    /** System property with the JVM flags of every fork, space separated */
+    public static final String JVM_ARGS_PROPERTY = "benchmark.fork.jvmArgs";
+    /** System property that pins each running fork to its own range of cores with taskset */
+    public static final String PIN_PROPERTY = "benchmark.fork.pin";
+    /** System property overriding the classpath given to forks */
+    public static final String CLASSPATH_PROPERTY = "benchmark.fork.classpath";
+    /** System property with the seconds after which a fork is killed */
+    public static final String TIMEOUT_PROPERTY = "benchmark.fork.timeout";
+
+    /** Command-line flag that makes BenchmarkRunner.main act as a fork */
+    static final String CHILD_FLAG = "--fork-child";
+
+    private static final String DEFAULT_JVM_ARGS = "-Xms1g -Xmx1g -XX:+UseParallelGC";
+    private static final long DEFAULT_TIMEOUT_SECONDS = 30 * 60;
+    private static final long DEFAULT_HEAP_BYTES = 1L << 30; // Assumed when no -Xmx is given
+    private static final long FORK_OVERHEAD_BYTES = 256L << 20; // Metaspace, code cache, thread stacks
+    private static final int LOG_TAIL_LINES = 20;
+
+    /** Settings passed on to every fork */
+    private static final List<String> FORWARDED_PROPERTIES = List.of(
+            BenchmarkRunner.WARMUP_PROPERTY, BenchmarkRunner.ITERATIONS_PROPERTY,
+            BenchmarkRunner.CACHE_DIR_PROPERTY, "scc.algorithm", "metrics.mode");
+
+    private static final Gson GSON = new Gson();
+
+    private final int forks;
+    private final int parallelism;
+    private final List<String> jvmArgs;
+    private final List<String> cpuSets; // taskset range per concurrent fork, or null without pinning
+    private final String classpath;
+    private final long timeoutSeconds;
+    private final List<String> failedDatasets = new ArrayList<>();
+
+    /**
+     * Create a runner from the benchmark.fork* system properties
+     */
+    public ForkedRunner() {
+        this(Integer.getInteger(FORKS_PROPERTY, 1),
+                Integer.getInteger(PARALLEL_PROPERTY, defaultParallelism(jvmArgsFromProperty())),
+                jvmArgsFromProperty(),
+                Boolean.getBoolean(PIN_PROPERTY),
+                System.getProperty(CLASSPATH_PROPERTY, currentClasspath()),
+                Long.getLong(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * Create a runner
+     * @param forks JVMs per dataset
+     * @param parallelism forks running at the same time
+     * @param jvmArgs heap, GC and other flags of every fork
+     * @param pin run each fork under taskset on its own range of cores
+     * @param classpath classpath of the forks
+     * @param timeoutSeconds time after which a fork is killed and counted as failed
+     * @throws IllegalArgumentException if pinning and there are fewer free cores than parallelism
+     */
+    public ForkedRunner(int forks, int parallelism, List<String> jvmArgs, boolean pin, String classpath,
+                        long timeoutSeconds) {
+        if (forks < 1 || parallelism < 1 || timeoutSeconds < 1) {
+            throw new IllegalArgumentException("Need forks >= 1, parallelism >= 1 and timeout >= 1: "
+                    + forks + ", " + parallelism + ", " + timeoutSeconds);
+        }
+        this.forks = forks;
+        this.parallelism = parallelism;
+        this.jvmArgs = new ArrayList<>(jvmArgs);
+        this.jvmArgs.removeIf(String::isEmpty);
+        this.cpuSets = pin ? cpuSets(parallelism, Runtime.getRuntime().availableProcessors()) : null;
+        this.classpath = classpath;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    private static List<String> jvmArgsFromProperty() {
+        return Arrays.asList(System.getProperty(JVM_ARGS_PROPERTY, DEFAULT_JVM_ARGS).trim().split("\\s+"));
+    }
+
+    /**
+     * Half the cores, capped so the forks' heaps fit into free physical memory
+     */
+    static int defaultParallelism(List<String> jvmArgs) {
+        int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        long free = freeMemoryBytes();
+        if (free > 0) {
+            long perFork = maxHeapBytes(jvmArgs) + FORK_OVERHEAD_BYTES;
+            parallelism = (int) Math.max(1, Math.min(parallelism, free / perFork));
+        }
+        return parallelism;
+    }
+
+    @SuppressWarnings("deprecation") // getFreeMemorySize needs Java 14
+    private static long freeMemoryBytes() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getFreePhysicalMemorySize();
+        }
+        return -1;
+    }
+
+    /**
+     * Heap limit from the last -Xmx flag, or DEFAULT_HEAP_BYTES without one
+     */
+    static long maxHeapBytes(List<String> jvmArgs) {
+        long heap = DEFAULT_HEAP_BYTES;
+        for (String arg : jvmArgs) {
+            if (arg.startsWith("-Xmx")) {
+                heap = parseSize(arg.substring(4));
+            }
+        }
+        return heap;
+    }
+
+    /**
+     * JVM memory size such as 512m or 2g
+     */
+    private static long parseSize(String size) {
+        String lower = size.toLowerCase(Locale.ROOT);
+        int shift = 0;
+        switch (lower.isEmpty() ? ' ' : lower.charAt(lower.length() - 1)) {
+            case 'k':
+                shift = 10;
+                break;
+            case 'm':
+                shift = 20;
+                break;
+            case 'g':
+                shift = 30;
+                break;
+            case 't':
+                shift = 40;
+                break;
+            default:
+                break;
+        }
+        try {
+            return Long.parseLong(shift == 0 ? lower : lower.substring(0, lower.length() - 1)) << shift;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid heap size: " + size, e);
+        }
+    }
+
+    /**
+     * Disjoint taskset core ranges, one per concurrent fork. Core 0 is left to the
+     * parent unless it is the only core.
+     * @throws IllegalArgumentException if there are fewer usable cores than forks
+     */
+    static List<String> cpuSets(int parallelism, int cores) {
+        int first = cores > 1 ? 1 : 0;
+        int usable = cores - first;
+        if (parallelism > usable) {
+            throw new IllegalArgumentException("Cannot pin " + parallelism + " forks to separate cores: only "
+                    + usable + " of " + cores + " cores are free");
+        }
+        int perFork = usable / parallelism;
+        List<String> sets = new ArrayList<>();
+        for (int slot = 0; slot < parallelism; slot++) {
+            int from = first + slot * perFork;
+            int to = from + perFork - 1;
+            sets.add(from == to ? String.valueOf(from) : from + "-" + to);
+        }
+        return sets;
+    }
+
+    /**
+     * Result file and log of one fork
+     */
+    private static final class Fork {
+        final File dataset;
+        final int index;
+        final Path resultFile;
+        final Path logFile;
+
+        Fork(File dataset, int index, Path workDirectory) {
+            this.dataset = dataset;
+            this.index = index;
+            String name = dataset.getName() + "-" + index;
+            this.resultFile = workDirectory.resolve(name + ".json");
+            this.logFile = workDirectory.resolve(name + ".log");
+        }
+    }
+
+    /**
+     * Run every JSON dataset in a directory in forked JVMs
+     * @return one merged result per dataset whose forks did not all fail, in file name order
+     * @throws IOException if the working directory cannot be created
+     */
+    public List<BenchmarkRunner.BenchmarkResult> run(String dataDirectory) throws IOException {
+        File[] files = BenchmarkRunner.listDatasets(dataDirectory);
+        failedDatasets.clear();
+        Path workDirectory = Files.createTempDirectory("benchmark-forks");
+        System.out.printf("Running %d datasets x %d forks, %d at a time%s...%n",
+                files.length, forks, parallelism, cpuSets == null ? "" : " (pinned to " + cpuSets + ")");
+        System.out.println("JVM flags: " + String.join(" ", jvmArgs));
+        System.out.println();
+
+        // One slot per concurrently running fork; with pinning it selects the core range
+        BlockingQueue<Integer> slots = new ArrayBlockingQueue<>(parallelism);
+        for (int slot = 0; slot < parallelism; slot++) {
+            slots.add(slot);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        Map<String, List<Future<BenchmarkRunner.BenchmarkResult>>> futures = new LinkedHashMap<>();
+        try {
+            // Fork-major order so the forks of one dataset run at different times
+            for (File file : files) {
+                futures.put(file.getName(), new ArrayList<>());
+            }
+            for (int index = 0; index < forks; index++) {
+                for (File file : files) {
+                    Fork fork = new Fork(file, index, workDirectory);
+                    futures.get(file.getName()).add(executor.submit(() -> runFork(fork, slots)));
+                }
+            }
+
+            List<BenchmarkRunner.BenchmarkResult> results = new ArrayList<>();
+            for (Map.Entry<String, List<Future<BenchmarkRunner.BenchmarkResult>>> entry : futures.entrySet()) {
+                List<BenchmarkRunner.BenchmarkResult> forkResults = new ArrayList<>();
+                for (Future<BenchmarkRunner.BenchmarkResult> future : entry.getValue()) {
+                    BenchmarkRunner.BenchmarkResult result = await(future);
+                    if (result != null) {
+                        forkResults.add(result);
+                    }
+                }
+                if (forkResults.isEmpty()) {
+                    // Nothing was measured; a zero-time row would read as a speedup
+                    System.out.printf("%s: all %d forks FAILED, left out%n", entry.getKey(), forks);
+                    failedDatasets.add(entry.getKey());
+                    continue;
+                }
+                BenchmarkRunner.BenchmarkResult merged = merge(forkResults);
+                System.out.printf("%s: %d/%d forks, SCC=%d ns, Topo=%d ns, DAGSP=%d ns%n", entry.getKey(),
+                        forkResults.size(), forks, merged.sccTimeNanos, merged.topoTimeNanos, merged.dagspTimeNanos);
+                results.add(merged);
+            }
+            System.out.println();
+            return results;
+        } finally {
+            // Interrupted forks destroy their process; wait for that before deleting their files
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            deleteRecursively(workDirectory);
+        }
+    }
+
+    /**
+     * Datasets left out of the last run() because every fork failed
+     */
+    public List<String> getFailedDatasets() {
+        return new ArrayList<>(failedDatasets);
+    }
+
+    private static BenchmarkRunner.BenchmarkResult await(Future<BenchmarkRunner.BenchmarkResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            System.err.println("Fork failed: " + e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Run one fork in a free slot and read its result. The process is killed on
+     * timeout, on interruption and on any error.
+     * @return the result, or null if the fork failed (the tail of its log is printed)
+     */
+    private BenchmarkRunner.BenchmarkResult runFork(Fork fork, BlockingQueue<Integer> slots)
+            throws IOException, InterruptedException {
+        int slot = slots.take();
+        Process process = null;
+        try {
+            process = new ProcessBuilder(command(fork, cpuSets == null ? null : cpuSets.get(slot)))
+                    .redirectErrorStream(true)
+                    .redirectOutput(fork.logFile.toFile())
+                    .start();
+            if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                reportFailure(fork, "timed out after " + timeoutSeconds + " s");
+                return null;
+            }
+            int exitCode = process.exitValue();
+            if (exitCode != 0 || !Files.isRegularFile(fork.resultFile)) {
+                reportFailure(fork, "exited with " + exitCode);
+                return null;
+            }
+            List<BenchmarkRunner.BenchmarkResult> results = readResults(fork.resultFile);
+            return results.isEmpty() ? null : results.get(0);
+        } finally {
+            if (process != null && process.isAlive()) {
+                process.destroyForcibly();
+            }
+            slots.add(slot);
+        }
+    }
+
+    /**
+     * Print why a fork failed and the end of its log, which is deleted with the working directory
+     */
+    private static void reportFailure(Fork fork, String reason) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(fork.logFile, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            lines = List.of("(log unreadable: " + e.getMessage() + ")");
+        }
+        StringBuilder sb = new StringBuilder(String.format("Fork %d of %s %s; last lines of its output:%n",
+                fork.index, fork.dataset.getName(), reason));
+        for (String line : lines.subList(Math.max(0, lines.size() - LOG_TAIL_LINES), lines.size())) {
+            sb.append("  | ").append(line).append(System.lineSeparator());
+        }
+        System.err.print(sb);
+    }
+
+    private static void deleteRecursively(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            System.err.println("Warning: could not delete " + directory + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * java [taskset] command line of one fork
+     * @param cpuSet taskset core range, or null to run unpinned
+     */
+    List<String> command(Fork fork, String cpuSet) {
+        List<String> command = new ArrayList<>();
+        if (cpuSet != null) {
+            command.add("taskset");
+            command.add("-c");
+            command.add(cpuSet);
+        }
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        for (String property : FORWARDED_PROPERTIES) {
+            String value = System.getProperty(property);
+            if (value != null) {
+                command.add("-D" + property + "=" + value);
+            }
+        }
+        command.add("-cp");
+        command.add(classpath);
+        command.add(BenchmarkRunner.class.getName());
+        command.add(CHILD_FLAG);
+        command.add(fork.dataset.getAbsolutePath());
+        command.add(fork.resultFile.toString());
+        return command;
+    }
+
+    /**
+     * Classpath of the running application, also under launchers (e.g. exec:java)
+     * whose class loader is not the system one
+     */
+    private static String currentClasspath() {
+        ClassLoader loader = ForkedRunner.class.getClassLoader();
+        if (loader instanceof URLClassLoader) {
+            Set<String> entries = new LinkedHashSet<>();
+            for (URL url : ((URLClassLoader) loader).getURLs()) {
+                try {
+                    entries.add(Paths.get(url.toURI()).toString());
+                } catch (Exception e) {
+                    // Not a local file; forks cannot use it
+                }
+            }
+            if (!entries.isEmpty()) {
+                return String.join(File.pathSeparator, entries);
+            }
+        }
+        return System.getProperty("java.class.path");
+    }
+
+    /**
+     * Merge the results of several forks of the same dataset.
+     * Counts and resource usage come from the first fork.
+     */
+    static BenchmarkRunner.BenchmarkResult merge(List<BenchmarkRunner.BenchmarkResult> forkResults) {
+        BenchmarkRunner.BenchmarkResult merged = forkResults.get(0);
+
+        // Spread of the per-fork medians, before they are replaced by the merged ones
+        Map<String, List<Long>> forkMedians = new LinkedHashMap<>();
+        for (BenchmarkRunner.BenchmarkResult result : forkResults) {
+            result.phaseNanos.forEach((phase, nanos) ->
+                    forkMedians.computeIfAbsent(phase, k -> new ArrayList<>()).add(nanos));
+        }
+
+        LatencyHistogram load = new LatencyHistogram();
+        load.record(merged.loadTimeNanos);
+        for (BenchmarkRunner.BenchmarkResult other : forkResults.subList(1, forkResults.size())) {
+            other.phaseHistograms.forEach((phase, h) ->
+                    merged.phaseHistograms.computeIfAbsent(phase, k -> new LatencyHistogram()).merge(h));
+            other.samples.forEach((metric, values) ->
+                    merged.samples.computeIfAbsent(metric, k -> new ArrayList<>()).addAll(values));
+            merged.iterations += other.iterations;
+            load.record(other.loadTimeNanos);
+        }
+
+        merged.forks = forkResults.size();
+        merged.phaseHistograms.forEach((phase, h) -> merged.phaseNanos.put(phase, h.getPercentile(50)));
+        forkMedians.forEach((phase, medians) -> merged.phaseForkStddevNanos.put(phase, stddev(medians)));
+        merged.loadTimeNanos = load.getPercentile(50);
+        merged.sccTimeNanos = median(merged.samples.get("SCC_Time_Nanos"), merged.sccTimeNanos);
+        merged.psccTimeNanos = median(merged.samples.get("PSCC_Time_Nanos"), merged.psccTimeNanos);
+        merged.topoTimeNanos = median(merged.samples.get("Topo_Time_Nanos"), merged.topoTimeNanos);
+        merged.dagspTimeNanos = median(merged.samples.get("DAGSP_Time_Nanos"), merged.dagspTimeNanos);
+        return merged;
+    }
+
+    private static long median(List<Long> samples, long fallback) {
+        if (samples == null || samples.isEmpty()) {
+            return fallback;
+        }
+        LatencyHistogram h = new LatencyHistogram();
+        samples.forEach(h::record);
+        return h.getPercentile(50);
+    }
+
+    private static double stddev(List<Long> values) {
+        LatencyHistogram h = new LatencyHistogram();
+        values.forEach(h::record);
+        return h.getStdDev();
+    }
+
+    private static List<BenchmarkRunner.BenchmarkResult> readResults(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<BenchmarkRunner.BenchmarkResult> results = GSON.fromJson(reader,
+                    new TypeToken<List<BenchmarkRunner.BenchmarkResult>>() { }.getType());
+            return results == null ? List.of() : results;
+        } catch (JsonParseException e) {
+            throw new IOException("Malformed fork result " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fork side: measure one dataset and write the result for the parent
+     * @param args dataset file and result file
+     * @return process exit code
+     */
+    static int runChild(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: BenchmarkRunner " + CHILD_FLAG + " <dataset> <result.json>");
+            return 2;
+        }
+        int warmup = Integer.getInteger(BenchmarkRunner.WARMUP_PROPERTY, BenchmarkRunner.DEFAULT_WARMUP);
+        int iterations = Integer.getInteger(BenchmarkRunner.ITERATIONS_PROPERTY, BenchmarkRunner.DEFAULT_ITERATIONS);
+        BenchmarkRunner runner = new BenchmarkRunner(
+                new GraphCache(Paths.get(System.getProperty(BenchmarkRunner.CACHE_DIR_PROPERTY,
+                        GraphCache.DEFAULT_DIRECTORY))), 0);
+        List<BenchmarkRunner.BenchmarkResult> results =
+                runner.runIterations(new File[]{new File(args[0])}, warmup, iterations);
+        if (results.isEmpty()) {
+            return 1;
+        }
+        try (Writer writer = Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            GSON.toJson(results, writer);
+        } catch (IOException e) {
+            System.err.println("Error writing fork result: " + e.getMessage());
+            return 1;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,163 @@
+package com.smartcity.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram of non-negative latencies in nanoseconds.
+ * Values below 2^SUB_BITS get exact buckets; above that each power-of-two range
+ * is split into 2^SUB_BITS equal buckets, so any percentile is within 1/128 of the
+ * recorded value. Buckets are allocated up to the largest value seen.
+ *
+ * Min, max, mean and standard deviation are tracked exactly, not from buckets.
+ * Not thread-safe.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    private long[] counts;
+    private long count;
+    private long min;
+    private long max;
+    private double mean;
+    private double m2; // Sum of squared deviations from the mean (Welford)
+
+    public LatencyHistogram() {
+        this.counts = new long[2 * SUB_COUNT];
+        this.min = Long.MAX_VALUE;
+        this.max = Long.MIN_VALUE;
+    }
+
+    /**
+     * Record one latency
+     * @throws IllegalArgumentException if nanos is negative
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException("Latency must be non-negative: " + nanos);
+        }
+        int index = indexOf(nanos);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length * 2));
+        }
+        counts[index]++;
+
+        count++;
+        min = Math.min(min, nanos);
+        max = Math.max(max, nanos);
+        double delta = nanos - mean;
+        mean += delta / count;
+        m2 += delta * (nanos - mean);
+    }
+
+    /**
+     * Add every sample of other into this histogram
+     */
+    public void merge(LatencyHistogram other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        mean += delta * other.count / total;
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Bucket of a value: exact below SUB_COUNT, then SUB_COUNT buckets per power of two
+     */
+    static int indexOf(long value) {
+        if (value < 2 * SUB_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_COUNT + (int) (value >>> shift) - SUB_COUNT;
+    }
+
+    /**
+     * Smallest value that falls into the bucket
+     */
+    static long lowerBound(int index) {
+        if (index < 2 * SUB_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_COUNT - 1;
+        return (long) (SUB_COUNT + index % SUB_COUNT) << shift;
+    }
+
+    /**
+     * Value at the given percentile, the midpoint of its bucket clamped to [min, max]
+     * @param percentile between 0 and 100
+     * @return the estimate, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be in [0, 100]: " + percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                long lower = lowerBound(i);
+                long width = lowerBound(i + 1) - lower;
+                return Math.max(min, Math.min(max, lower + (width - 1) / 2));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Get number of recorded samples
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the smallest sample, or 0 if empty
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Get the largest sample, or 0 if empty
+     */
+    public long getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    /**
+     * Get the arithmetic mean, or 0 if empty
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Get the sample standard deviation, or 0 with fewer than two samples
+     */
+    public double getStdDev() {
+        return count < 2 ? 0.0 : Math.sqrt(m2 / (count - 1));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LatencyHistogram(count=%d, min=%d, p50=%d, p99=%d, max=%d)",
+                count, getMin(), getPercentile(50), getPercentile(99), getMax());
+    }
+}
@@ -0,0 +1,513 @@
+package com.smartcity.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares benchmark results against a baseline and decides whether any timing regressed.
+ *
+ * The baseline is either the JSON samples file written by BenchmarkRunner (raw samples,
+ * compared with a one-sided Mann-Whitney U test) or a results CSV. A CSV with an
+ * Iterations column provides mean and standard deviation per phase (Welch's t-test);
+ * an older CSV with one value per column is compared by ratio only.
+ *
+ * A metric regresses when it is slower by more than the threshold (relative to the
+ * baseline median or mean), by at least MIN_DELTA_NANOS, and, when a test is
+ * possible, the slowdown is significant at level alpha.
+ */
+public class RegressionGate {
+    /** System property naming the baseline file (.json or .csv) */
+    public static final String BASELINE_PROPERTY = "benchmark.baseline";
+    /** System property with the allowed relative slowdown, e.g. 0.10 for 10% */
+    public static final String THRESHOLD_PROPERTY = "benchmark.regression.threshold";
+    /** System property with the significance level of the statistical tests */
+    public static final String ALPHA_PROPERTY = "benchmark.regression.alpha";
+    /** Version of the JSON samples format */
+    public static final int JSON_FORMAT = 1;
+
+    /** Slowdowns smaller than this are timer noise whatever their ratio */
+    public static final long MIN_DELTA_NANOS = 1_000;
+
+    private static final double DEFAULT_THRESHOLD = 0.10;
+    private static final double DEFAULT_ALPHA = 0.05;
+
+    private final double threshold;
+    private final double alpha;
+
+    /**
+     * Distribution of one metric: raw samples if known, otherwise summary statistics
+     */
+    public static class Summary {
+        public final int count;
+        public final double mean;
+        public final double stddev;
+        public final double median;
+        public final long[] samples; // Null when only summary statistics are known
+
+        public Summary(int count, double mean, double stddev, double median, long[] samples) {
+            this.count = count;
+            this.mean = mean;
+            this.stddev = stddev;
+            this.median = median;
+            this.samples = samples;
+        }
+
+        /**
+         * Summary of raw samples
+         */
+        public static Summary of(long[] samples) {
+            if (samples.length == 0) {
+                throw new IllegalArgumentException("No samples");
+            }
+            long[] sorted = samples.clone();
+            Arrays.sort(sorted);
+            int n = sorted.length;
+            double median = n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2.0;
+            double mean = Arrays.stream(sorted).average().orElse(0);
+            double m2 = Arrays.stream(sorted).mapToDouble(v -> (v - mean) * (v - mean)).sum();
+            double stddev = n < 2 ? 0 : Math.sqrt(m2 / (n - 1));
+            return new Summary(n, mean, stddev, median, samples.clone());
+        }
+
+        /**
+         * A single observation
+         */
+        public static Summary single(double value) {
+            return new Summary(1, value, 0, value, null);
+        }
+    }
+
+    /**
+     * Outcome of comparing one metric of one dataset
+     */
+    public static class Comparison {
+        public final String dataset;
+        public final String metric;
+        public final double baseline;
+        public final double current;
+        public final String test;
+        public final double pValue; // NaN when no test was possible
+        public final boolean regressed;
+
+        public Comparison(String dataset, String metric, double baseline, double current,
+                          String test, double pValue, boolean regressed) {
+            this.dataset = dataset;
+            this.metric = metric;
+            this.baseline = baseline;
+            this.current = current;
+            this.test = test;
+            this.pValue = pValue;
+            this.regressed = regressed;
+        }
+
+        /**
+         * Relative change, positive when the current run is slower
+         */
+        public double getChange() {
+            return baseline == 0 ? 0 : current / baseline - 1;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s %s: %.0f -> %.0f ns (%+.1f%%, %s, p=%s)%s",
+                    dataset, metric, baseline, current, 100 * getChange(), test,
+                    Double.isNaN(pValue) ? "n/a" : String.format(Locale.ROOT, "%.4f", pValue),
+                    regressed ? " REGRESSION" : "");
+        }
+    }
+
+    /**
+     * Create a gate from -Dbenchmark.regression.threshold (default 0.10) and
+     * -Dbenchmark.regression.alpha (default 0.05)
+     */
+    public RegressionGate() {
+        this(Double.parseDouble(System.getProperty(THRESHOLD_PROPERTY, String.valueOf(DEFAULT_THRESHOLD))),
+                Double.parseDouble(System.getProperty(ALPHA_PROPERTY, String.valueOf(DEFAULT_ALPHA))));
+    }
+
+    /**
+     * Create a gate
+     * @param threshold allowed relative slowdown, e.g. 0.10
+     * @param alpha significance level of the one-sided tests
+     */
+    public RegressionGate(double threshold, double alpha) {
+        if (threshold < 0 || alpha <= 0 || alpha >= 1) {
+            throw new IllegalArgumentException("Need threshold >= 0 and 0 < alpha < 1: " + threshold + ", " + alpha);
+        }
+        this.threshold = threshold;
+        this.alpha = alpha;
+    }
+
+    /**
+     * Compare every metric present in both the baseline and the current results
+     * @param baseline dataset -> metric -> summary
+     * @param current dataset -> metric -> summary
+     * @return one comparison per shared dataset and metric
+     */
+    public List<Comparison> compare(Map<String, Map<String, Summary>> baseline,
+                                    Map<String, Map<String, Summary>> current) {
+        List<Comparison> comparisons = new ArrayList<>();
+        current.forEach((dataset, metrics) -> {
+            Map<String, Summary> base = baseline.get(dataset);
+            if (base == null) {
+                return;
+            }
+            metrics.forEach((metric, now) -> {
+                Summary before = base.get(metric);
+                if (before != null) {
+                    comparisons.add(compare(dataset, metric, before, now));
+                }
+            });
+        });
+        return comparisons;
+    }
+
+    private Comparison compare(String dataset, String metric, Summary before, Summary now) {
+        String test;
+        double pValue;
+        double baseValue;
+        double currentValue;
+        if (before.samples != null && now.samples != null && before.count >= 2 && now.count >= 2) {
+            test = "mann-whitney";
+            pValue = mannWhitneyPValue(now.samples, before.samples);
+            baseValue = before.median;
+            currentValue = now.median;
+        } else if (before.count >= 2 && now.count >= 2) {
+            test = "welch";
+            pValue = welchPValue(now, before);
+            baseValue = before.mean;
+            currentValue = now.mean;
+        } else {
+            test = "ratio";
+            pValue = Double.NaN;
+            baseValue = before.count >= 2 ? before.median : before.mean;
+            currentValue = now.count >= 2 ? now.median : now.mean;
+        }
+
+        boolean slower = currentValue > baseValue * (1 + threshold)
+                && currentValue - baseValue >= MIN_DELTA_NANOS;
+        boolean significant = Double.isNaN(pValue) || pValue < alpha;
+        return new Comparison(dataset, metric, baseValue, currentValue, test, pValue, slower && significant);
+    }
+
+    /**
+     * True if any comparison regressed
+     */
+    public static boolean hasRegression(List<Comparison> comparisons) {
+        return comparisons.stream().anyMatch(c -> c.regressed);
+    }
+
+    /**
+     * Print every regression, or a one-line all-clear
+     */
+    public void printReport(List<Comparison> comparisons) {
+        System.out.println("=".repeat(80));
+        System.out.printf(Locale.ROOT, "REGRESSION CHECK (threshold %.0f%%, alpha %.3f, %d metrics compared)%n",
+                100 * threshold, alpha, comparisons.size());
+        System.out.println("=".repeat(80));
+        long regressions = comparisons.stream().filter(c -> c.regressed).count();
+        if (regressions == 0) {
+            System.out.println("  No regressions");
+        } else {
+            comparisons.stream().filter(c -> c.regressed).forEach(c -> System.out.println("  " + c));
+            System.out.printf("  %d regression(s)%n", regressions);
+        }
+    }
+
+    /**
+     * Summaries of freshly measured results: raw samples if they were run with
+     * iterations, otherwise the single values of the time and phase columns
+     */
+    public static Map<String, Map<String, Summary>> summarize(List<BenchmarkRunner.BenchmarkResult> results) {
+        Map<String, Map<String, Summary>> summaries = new LinkedHashMap<>();
+        for (BenchmarkRunner.BenchmarkResult result : results) {
+            Map<String, Summary> metrics = new LinkedHashMap<>();
+            if (!result.samples.isEmpty()) {
+                result.samples.forEach((metric, values) ->
+                        metrics.put(metric, Summary.of(values.stream().mapToLong(Long::longValue).toArray())));
+            } else {
+                metrics.put("SCC_Time_Nanos", Summary.single(result.sccTimeNanos));
+                metrics.put("PSCC_Time_Nanos", Summary.single(result.psccTimeNanos));
+                metrics.put("Topo_Time_Nanos", Summary.single(result.topoTimeNanos));
+                metrics.put("DAGSP_Time_Nanos", Summary.single(result.dagspTimeNanos));
+                result.phaseNanos.forEach((phase, nanos) ->
+                        metrics.put("Phase_" + phase + "_Nanos", Summary.single(nanos)));
+            }
+            summaries.put(result.dataset, metrics);
+        }
+        return summaries;
+    }
+
+    /**
+     * Load a baseline written by BenchmarkRunner
+     * @param path .json samples file or .csv results file
+     * @return dataset -> metric -> summary
+     * @throws IOException if the file cannot be read or parsed
+     */
+    public static Map<String, Map<String, Summary>> loadBaseline(Path path) throws IOException {
+        if (path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json")) {
+            return loadJson(path);
+        }
+        return loadCsv(path);
+    }
+
+    private static Map<String, Map<String, Summary>> loadJson(Path path) throws IOException {
+        Map<String, Map<String, Summary>> summaries = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            JsonObject root = JsonParser.parseReader(reader).getAsJsonObject();
+            int format = root.get("format").getAsInt();
+            if (format != JSON_FORMAT) {
+                throw new IOException("Unsupported samples format " + format + ": " + path);
+            }
+            for (Map.Entry<String, JsonElement> dataset : root.getAsJsonObject("datasets").entrySet()) {
+                Map<String, Summary> metrics = new LinkedHashMap<>();
+                for (Map.Entry<String, JsonElement> metric : dataset.getValue().getAsJsonObject().entrySet()) {
+                    JsonArray array = metric.getValue().getAsJsonArray();
+                    long[] samples = new long[array.size()];
+                    for (int i = 0; i < samples.length; i++) {
+                        samples[i] = array.get(i).getAsLong();
+                    }
+                    if (samples.length > 0) {
+                        metrics.put(metric.getKey(), Summary.of(samples));
+                    }
+                }
+                summaries.put(dataset.getKey(), metrics);
+            }
+        } catch (JsonParseException | IllegalStateException | NullPointerException | ClassCastException e) {
+            throw new IOException("Malformed samples file " + path + ": " + e.getMessage(), e);
+        }
+        return summaries;
+    }
+
+    private static Map<String, Map<String, Summary>> loadCsv(Path path) throws IOException {
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        if (lines.isEmpty()) {
+            throw new IOException("Empty results file: " + path);
+        }
+        String[] header = lines.get(0).trim().split(",");
+        Map<String, Integer> column = new LinkedHashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            column.put(header[i], i);
+        }
+        Integer iterationsColumn = column.get("Iterations");
+
+        Map<String, Map<String, Summary>> summaries = new LinkedHashMap<>();
+        for (int line = 1; line < lines.size(); line++) {
+            if (lines.get(line).isBlank()) {
+                continue;
+            }
+            String[] row = parseRow(header, lines.get(line), path, line + 1);
+            int count = iterationsColumn == null ? 1 : Integer.parseInt(row[iterationsColumn]);
+            Map<String, Summary> metrics = new LinkedHashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                String name = header[i];
+                boolean phase = name.startsWith("Phase_") && name.endsWith("_Nanos") && !isStatColumn(name);
+                boolean stage = name.endsWith("_Time_Nanos") && !name.equals("Load_Time_Nanos");
+                if (phase && iterationsColumn != null) {
+                    // Phase_<p>_Nanos is the median; the stat columns give the distribution
+                    String prefix = name.substring(0, name.length() - "_Nanos".length());
+                    Integer mean = column.get(prefix + "_Mean_Nanos");
+                    Integer stddev = column.get(prefix + "_Stddev_Nanos");
+                    // A zero mean means the phase did not run for this dataset
+                    if (mean != null && stddev != null && Double.parseDouble(row[mean]) > 0) {
+                        metrics.put(name, new Summary(count, Double.parseDouble(row[mean]),
+                                Double.parseDouble(row[stddev]), Double.parseDouble(row[i]), null));
+                    }
+                } else if ((phase || (stage && iterationsColumn == null)) && Double.parseDouble(row[i]) > 0) {
+                    // Older files have one sample per column; stage times of newer files
+                    // are covered by their root phases
+                    metrics.put(name, Summary.single(Double.parseDouble(row[i])));
+                }
+            }
+            summaries.put(row[0], metrics);
+        }
+        return summaries;
+    }
+
+    private static boolean isStatColumn(String name) {
+        for (String stat : List.of("_Min", "_P50", "_P90", "_P99", "_Max", "_Mean", "_Stddev")) {
+            if (name.endsWith(stat + "_Nanos")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isFractionalColumn(String name) {
+        return name.equals("Density") || name.endsWith("_Mean_Nanos") || name.endsWith("_Stddev_Nanos");
+    }
+
+    /**
+     * Split a CSV row, rejoining fractional values that were written with a comma
+     * decimal separator (e.g. Density "0,0441" in files from comma-decimal locales)
+     */
+    static String[] parseRow(String[] header, String text, Path path, int lineNumber) throws IOException {
+        String[] fields = text.trim().split(",", -1);
+        if (fields.length == header.length) {
+            return fields;
+        }
+        int fractional = 0;
+        for (String name : header) {
+            if (isFractionalColumn(name)) {
+                fractional++;
+            }
+        }
+        if (fields.length != header.length + fractional) {
+            throw new IOException(String.format(Locale.ROOT, "%s:%d: expected %d columns, found %d",
+                    path, lineNumber, header.length, fields.length));
+        }
+        String[] joined = new String[header.length];
+        int f = 0;
+        for (int i = 0; i < header.length; i++) {
+            joined[i] = isFractionalColumn(header[i]) ? fields[f++] + "." + fields[f++] : fields[f++];
+        }
+        return joined;
+    }
+
+    /**
+     * One-sided Mann-Whitney U test that current tends to be larger than baseline,
+     * using the normal approximation with tie and continuity corrections
+     * @return p-value
+     */
+    public static double mannWhitneyPValue(long[] current, long[] baseline) {
+        int n1 = current.length;
+        int n2 = baseline.length;
+        long[] all = new long[n1 + n2];
+        System.arraycopy(current, 0, all, 0, n1);
+        System.arraycopy(baseline, 0, all, n1, n2);
+        Arrays.sort(all);
+
+        // Rank sum of current with average ranks for ties, plus the tie correction term
+        double rankSum = 0;
+        double tieTerm = 0;
+        for (int i = 0; i < all.length; ) {
+            int j = i;
+            while (j < all.length && all[j] == all[i]) {
+                j++;
+            }
+            double rank = (i + 1 + j) / 2.0;
+            int ties = j - i;
+            tieTerm += (double) ties * ties * ties - ties;
+            for (long v : current) {
+                if (v == all[i]) {
+                    rankSum += rank;
+                }
+            }
+            i = j;
+        }
+
+        double u = rankSum - n1 * (n1 + 1) / 2.0;
+        double n = n1 + n2;
+        double variance = n1 * (double) n2 / 12.0 * ((n + 1) - tieTerm / (n * (n - 1)));
+        if (variance <= 0) {
+            return 1.0; // All values equal
+        }
+        double z = (u - n1 * (double) n2 / 2.0 - 0.5) / Math.sqrt(variance);
+        return 1 - normalCdf(z);
+    }
+
+    /**
+     * One-sided Welch t-test that current has the larger mean
+     * @return p-value
+     */
+    public static double welchPValue(Summary current, Summary baseline) {
+        double v1 = current.stddev * current.stddev / current.count;
+        double v2 = baseline.stddev * baseline.stddev / baseline.count;
+        if (v1 + v2 == 0) {
+            return current.mean > baseline.mean ? 0.0 : 1.0;
+        }
+        double t = (current.mean - baseline.mean) / Math.sqrt(v1 + v2);
+        double df = (v1 + v2) * (v1 + v2)
+                / (v1 * v1 / (current.count - 1) + v2 * v2 / (baseline.count - 1));
+        double tail = 0.5 * regularizedBeta(df / (df + t * t), df / 2, 0.5);
+        return t > 0 ? tail : 1 - tail;
+    }
+
+    /**
+     * Standard normal CDF (Abramowitz and Stegun 7.1.26, error below 1.5e-7)
+     */
+    static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1 / (1 + 0.3275911 * x);
+        double erf = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741
+                + t * (-1.453152027 + t * 1.061405429)))) * Math.exp(-x * x);
+        return z >= 0 ? 0.5 * (1 + erf) : 0.5 * (1 - erf);
+    }
+
+    /**
+     * Regularized incomplete beta function I_x(a, b) by continued fraction
+     */
+    static double regularizedBeta(double x, double a, double b) {
+        if (x <= 0) {
+            return 0;
+        }
+        if (x >= 1) {
+            return 1;
+        }
+        double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b)
+                + a * Math.log(x) + b * Math.log(1 - x));
+        if (x < (a + 1) / (a + b + 2)) {
+            return front * betaContinuedFraction(x, a, b) / a;
+        }
+        return 1 - front * betaContinuedFraction(1 - x, b, a) / b;
+    }
+
+    private static double betaContinuedFraction(double x, double a, double b) {
+        final double tiny = 1e-300;
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        d = 1 / (Math.abs(d) < tiny ? tiny : d);
+        double result = d;
+        for (int m = 1; m <= 300; m++) {
+            int m2 = 2 * m;
+            double aa = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+            d = 1 / nonZero(1 + aa * d, tiny);
+            c = nonZero(1 + aa / c, tiny);
+            result *= d * c;
+            aa = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+            d = 1 / nonZero(1 + aa * d, tiny);
+            c = nonZero(1 + aa / c, tiny);
+            double delta = d * c;
+            result *= delta;
+            if (Math.abs(delta - 1) < 1e-12) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static double nonZero(double value, double tiny) {
+        return Math.abs(value) < tiny ? tiny : value;
+    }
+
+    /**
+     * Lanczos approximation of log Gamma(x) for x > 0
+     */
+    private static double logGamma(double x) {
+        double[] g = {76.18009172947146, -86.50532032941677, 24.01409824083091,
+                -1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5};
+        double y = x;
+        double tmp = x + 5.5;
+        tmp -= (x + 0.5) * Math.log(tmp);
+        double series = 1.000000000190015;
+        for (double coefficient : g) {
+            series += coefficient / ++y;
+        }
+        return -tmp + Math.log(2.5066282746310005 * series / x);
+    }
+}
@@ -0,0 +1,215 @@
+package com.smartcity.benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Allocation and garbage collection accounting for one benchmark stage.
+ *
+ * Allocated bytes come from com.sun.management.ThreadMXBean and cover the
+ * measuring thread plus the common fork/join pool workers (where ParallelSCC runs),
+ * but not the prefetch loader threads. Workers started during the stage are counted
+ * in full; a worker that exits during the stage (after idling past the pool's
+ * keep-alive) loses its bytes, as the JVM no longer reports them. GC count and time are summed over all
+ * collectors, so they include collections triggered by any thread. Peak heap is the
+ * sum of per-pool peaks since the stage started, an upper bound on the real peak.
+ * Values are -1 when the JVM does not support the measurement.
+ */
+public final class ResourceUsage {
+    /** Usage of a stage that did not run */
+    public static final ResourceUsage NONE = new ResourceUsage(0, 0, 0, 0);
+
+    private static final String COMMON_POOL_WORKER = "ForkJoinPool.commonPool-worker";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+
+    public final long allocatedBytes;
+    public final long gcCount;
+    public final long gcTimeMillis;
+    public final long peakHeapBytes;
+
+    public ResourceUsage(long allocatedBytes, long gcCount, long gcTimeMillis, long peakHeapBytes) {
+        this.allocatedBytes = allocatedBytes;
+        this.gcCount = gcCount;
+        this.gcTimeMillis = gcTimeMillis;
+        this.peakHeapBytes = peakHeapBytes;
+    }
+
+    /**
+     * Start measuring a stage on the calling thread
+     */
+    public static Probe start() {
+        return start(COMMON_POOL_WORKER);
+    }
+
+    /**
+     * Start measuring a stage on the calling thread and the pool workers whose
+     * names start with workerPrefix
+     */
+    static Probe start(String workerPrefix) {
+        return new Probe(workerPrefix);
+    }
+
+    /**
+     * Counters captured when a stage starts; stop() returns the deltas
+     */
+    public static final class Probe {
+        private final String workerPrefix;
+        private final long[] threadIds;
+        private final long[] allocatedAtStart;
+        private final long gcCountAtStart;
+        private final long gcTimeAtStart;
+
+        private Probe(String workerPrefix) {
+            this.workerPrefix = workerPrefix;
+            this.threadIds = measuredThreads(workerPrefix);
+            for (MemoryPoolMXBean pool : heapPools()) {
+                pool.resetPeakUsage();
+            }
+            this.gcCountAtStart = gcCount();
+            this.gcTimeAtStart = gcTimeMillis();
+            // Read last so the probe's own allocations are not charged to the stage
+            this.allocatedAtStart = allocated(threadIds);
+        }
+
+        /**
+         * Finish the stage
+         * @return resources used since start()
+         */
+        public ResourceUsage stop() {
+            long[] allocatedAtEnd = allocated(threadIds);
+            // Workers the pool started during the stage allocated everything since then
+            long[] started = startedWorkers();
+            long[] allocatedByStarted = allocated(started);
+            long gcCountAtEnd = gcCount();
+            long gcTimeAtEnd = gcTimeMillis();
+
+            long allocatedBytes = -1;
+            if (allocatedAtEnd != null) {
+                allocatedBytes = 0;
+                for (int i = 0; i < threadIds.length; i++) {
+                    // -1 marks a thread that has since terminated
+                    if (allocatedAtStart[i] >= 0 && allocatedAtEnd[i] >= 0) {
+                        allocatedBytes += allocatedAtEnd[i] - allocatedAtStart[i];
+                    }
+                }
+                for (long bytes : allocatedByStarted) {
+                    if (bytes >= 0) {
+                        allocatedBytes += bytes;
+                    }
+                }
+            }
+
+            long peakHeapBytes = 0;
+            for (MemoryPoolMXBean pool : heapPools()) {
+                peakHeapBytes += pool.getPeakUsage().getUsed();
+            }
+
+            return new ResourceUsage(allocatedBytes,
+                    gcCountAtStart < 0 ? -1 : gcCountAtEnd - gcCountAtStart,
+                    gcTimeAtStart < 0 ? -1 : gcTimeAtEnd - gcTimeAtStart,
+                    peakHeapBytes);
+        }
+
+        /**
+         * Live pool workers that were not measured from the start
+         */
+        private long[] startedWorkers() {
+            Set<Long> known = new HashSet<>();
+            for (long id : threadIds) {
+                known.add(id);
+            }
+            return Arrays.stream(measuredThreads(workerPrefix)).filter(id -> !known.contains(id)).toArray();
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREADS;
+        if (!bean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        if (!bean.isThreadAllocatedMemoryEnabled()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+        }
+        return bean;
+    }
+
+    /**
+     * Calling thread followed by every live pool worker whose name starts with workerPrefix
+     */
+    private static long[] measuredThreads(String workerPrefix) {
+        long current = Thread.currentThread().getId();
+        List<Long> ids = new ArrayList<>();
+        ids.add(current);
+        for (ThreadInfo info : THREADS.getThreadInfo(THREADS.getAllThreadIds(), 0)) {
+            if (info != null && info.getThreadId() != current
+                    && info.getThreadName().startsWith(workerPrefix)) {
+                ids.add(info.getThreadId());
+            }
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Allocated bytes per thread, or null if unsupported
+     */
+    private static long[] allocated(long[] threadIds) {
+        if (ALLOCATION == null) {
+            return null;
+        }
+        return ALLOCATION.getThreadAllocatedBytes(threadIds);
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            long count = gc.getCollectionCount();
+            if (count < 0) {
+                return -1;
+            }
+            total += count;
+        }
+        return total;
+    }
+
+    private static long gcTimeMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            long time = gc.getCollectionTime();
+            if (time < 0) {
+                return -1;
+            }
+            total += time;
+        }
+        return total;
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResourceUsage(allocated=%d, gcCount=%d, gcTime=%dms, peakHeap=%d)",
+                allocatedBytes, gcCount, gcTimeMillis, peakHeapBytes);
+    }
+}
@@ -0,0 +1,242 @@
+package com.smartcity.benchmark;
+
+import com.smartcity.common.Graph;
+import com.smartcity.common.GraphLoader;
+import com.smartcity.util.DatasetGenerator;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Scaling sweep: runs every algorithm on generated DAGs of geometrically increasing
+ * size at a fixed average degree and fits how each phase scales.
+ *
+ * For every phase the median time per size is divided by V+E, and a least-squares
+ * line is fitted to log(time) against log(V+E). A slope of 1 is linear scaling; phases
+ * with a slope above SUPER_LINEAR_SLOPE are flagged. DAGs are used so the condensation,
+ * topological sort and path phases see the full graph instead of a few components.
+ */
+public class ScalingSweep {
+    /** Fitted log-log slope above which a phase is reported as super-linear */
+    public static final double SUPER_LINEAR_SLOPE = 1.15;
+
+    private static final int SIZES_PER_DECADE = 2;
+    private static final int DEFAULT_WARMUP = 1;
+    private static final int DEFAULT_ITERATIONS = 3;
+    private static final long SEED = 42;
+
+    private final BenchmarkRunner runner;
+    private final int avgDegree;
+    private final int warmup;
+    private final int iterations;
+
+    /**
+     * Least-squares fit of log(nanos) = slope * log(elements) + intercept
+     */
+    public static class Fit {
+        public final double slope;
+        public final double intercept;
+
+        public Fit(double slope, double intercept) {
+            this.slope = slope;
+            this.intercept = intercept;
+        }
+
+        /**
+         * True if the phase grows clearly faster than V+E
+         */
+        public boolean isSuperLinear() {
+            return slope > SUPER_LINEAR_SLOPE;
+        }
+    }
+
+    /**
+     * Median time of one phase at one graph size
+     */
+    public static class Point {
+        public final int n;
+        public final int edges;
+        public final long medianNanos;
+
+        public Point(int n, int edges, long medianNanos) {
+            this.n = n;
+            this.edges = edges;
+            this.medianNanos = medianNanos;
+        }
+
+        public long getElements() {
+            return (long) n + edges;
+        }
+
+        public double getNanosPerElement() {
+            return (double) medianNanos / getElements();
+        }
+    }
+
+    /**
+     * Create a sweep
+     * @param runner runs the algorithms on each generated graph
+     * @param avgDegree edges per vertex, fixed across sizes
+     * @param warmup unreported runs per size
+     * @param iterations measured runs per size; phase times are their medians
+     */
+    public ScalingSweep(BenchmarkRunner runner, int avgDegree, int warmup, int iterations) {
+        if (avgDegree < 1 || warmup < 0 || iterations < 1) {
+            throw new IllegalArgumentException("Need avgDegree >= 1, warmup >= 0 and iterations >= 1");
+        }
+        this.runner = runner;
+        this.avgDegree = avgDegree;
+        this.warmup = warmup;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Vertex counts from minN to maxN, SIZES_PER_DECADE per factor of ten
+     */
+    public static List<Integer> sizes(int minN, int maxN) {
+        if (minN < 2 || maxN < minN) {
+            throw new IllegalArgumentException("Need 2 <= minN <= maxN: " + minN + ", " + maxN);
+        }
+        List<Integer> sizes = new ArrayList<>();
+        for (int k = 0; ; k++) {
+            double n = minN * Math.pow(10, (double) k / SIZES_PER_DECADE);
+            if (n > maxN * 1.0001) {
+                break;
+            }
+            sizes.add((int) Math.round(n));
+        }
+        return sizes;
+    }
+
+    /**
+     * Run the sweep
+     * @param sizes vertex counts to generate
+     * @return median time per phase and size, phases in first-seen order
+     */
+    public Map<String, List<Point>> run(List<Integer> sizes) {
+        Map<String, List<Point>> points = new LinkedHashMap<>();
+        for (int n : sizes) {
+            long edges = (long) n * avgDegree;
+            if (edges > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Too many edges for n=" + n + ": " + edges);
+            }
+            Graph graph = new DatasetGenerator(SEED).generateGraph(n, (int) edges, false);
+            GraphLoader.GraphData data = new GraphLoader.GraphData(graph, 0, "edge");
+            String name = "sweep_n" + n;
+            System.out.printf(Locale.ROOT, "n=%d, edges=%d%n", n, graph.getEdgeCount());
+
+            for (int i = 0; i < warmup; i++) {
+                runner.measure(name, data);
+            }
+            Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+            for (int i = 0; i < iterations; i++) {
+                BenchmarkRunner.BenchmarkResult result = runner.measure(name, data);
+                result.phaseNanos.forEach((phase, nanos) ->
+                        histograms.computeIfAbsent(phase, k -> new LatencyHistogram()).record(nanos));
+            }
+            histograms.forEach((phase, h) -> points.computeIfAbsent(phase, k -> new ArrayList<>())
+                    .add(new Point(n, graph.getEdgeCount(), h.getPercentile(50))));
+        }
+        return points;
+    }
+
+    /**
+     * Fit log(nanos) against log(V+E) over the points with a non-zero time
+     * @return the fit, or null with fewer than two usable points
+     */
+    public static Fit fit(List<Point> points) {
+        int count = 0;
+        double sumX = 0;
+        double sumY = 0;
+        double sumXX = 0;
+        double sumXY = 0;
+        for (Point p : points) {
+            if (p.medianNanos <= 0) {
+                continue;
+            }
+            double x = Math.log(p.getElements());
+            double y = Math.log(p.medianNanos);
+            count++;
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+        }
+        double denominator = count * sumXX - sumX * sumX;
+        if (count < 2 || denominator == 0) {
+            return null;
+        }
+        double slope = (count * sumXY - sumX * sumY) / denominator;
+        return new Fit(slope, (sumY - slope * sumX) / count);
+    }
+
+    /**
+     * Print ns/(V+E) per size and the fitted slope of every phase
+     */
+    public void printReport(Map<String, List<Point>> points) {
+        System.out.println("=".repeat(80));
+        System.out.printf(Locale.ROOT, "SCALING SWEEP (avg degree %d, ns per V+E)%n", avgDegree);
+        System.out.println("=".repeat(80));
+        points.forEach((phase, list) -> {
+            StringBuilder sb = new StringBuilder(String.format(Locale.ROOT, "  %-18s", phase));
+            for (Point p : list) {
+                sb.append(String.format(Locale.ROOT, " %9.2f", p.getNanosPerElement()));
+            }
+            Fit fit = fit(list);
+            if (fit == null) {
+                sb.append("  slope n/a");
+            } else {
+                sb.append(String.format(Locale.ROOT, "  slope %.2f", fit.slope));
+                if (fit.isSuperLinear()) {
+                    sb.append("  SUPER-LINEAR");
+                }
+            }
+            System.out.println(sb);
+        });
+    }
+
+    /**
+     * Write one row per phase and size, with the phase's fitted slope on every row
+     */
+    public void writeCSV(Map<String, List<Point>> points, String outputFile) {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(outputFile))) {
+            writer.println("Phase,N,Edges,Elements,Median_Nanos,Nanos_Per_Element,Slope,Super_Linear");
+            points.forEach((phase, list) -> {
+                Fit fit = fit(list);
+                for (Point p : list) {
+                    writer.println(String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%.4f,%s,%b",
+                            phase, p.n, p.edges, p.getElements(), p.medianNanos, p.getNanosPerElement(),
+                            fit == null ? "" : String.format(Locale.ROOT, "%.4f", fit.slope),
+                            fit != null && fit.isSuperLinear()));
+                }
+            });
+            System.out.println("Sweep results written to: " + outputFile);
+        } catch (IOException e) {
+            System.err.println("Error writing CSV file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Run a sweep from the command line
+     * Usage: java com.smartcity.benchmark.ScalingSweep [minN] [maxN] [avgDegree] [output.csv]
+     */
+    public static void main(String[] args) {
+        int minN = args.length >= 1 ? Integer.parseInt(args[0]) : 1_000;
+        int maxN = args.length >= 2 ? Integer.parseInt(args[1]) : 1_000_000;
+        int avgDegree = args.length >= 3 ? Integer.parseInt(args[2]) : 8;
+        String outputFile = args.length >= 4 ? args[3] : "sweep_results.csv";
+        int warmup = Integer.getInteger(BenchmarkRunner.WARMUP_PROPERTY, DEFAULT_WARMUP);
+        int iterations = Integer.getInteger(BenchmarkRunner.ITERATIONS_PROPERTY, DEFAULT_ITERATIONS);
+
+        ScalingSweep sweep = new ScalingSweep(new BenchmarkRunner(), avgDegree, warmup, iterations);
+        Map<String, List<Point>> points = sweep.run(sizes(minN, maxN));
+        sweep.printReport(points);
+        sweep.writeCSV(points, outputFile);
+    }
+}
@@ -0,0 +1,213 @@
+package com.smartcity.common;
+
+/**
+ * Immutable graph in compressed sparse row (CSR) form.
+ * The outgoing edges of vertex u occupy positions offsets[u] .. offsets[u + 1] - 1
+ * of the parallel targets/weights arrays, so traversal is a sequential scan
+ * over primitive arrays and costs about 8 bytes per edge.
+ */
+public final class CompactGraph implements GraphView {
+    private final int n;
+    private final boolean directed;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+
+    /**
+     * Wrap CSR arrays (not copied); used by fromEdges, getReverse and the loaders
+     */
+    CompactGraph(int n, boolean directed, int[] offsets, int[] targets, int[] weights) {
+        this.n = n;
+        this.directed = directed;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Copy any graph into CSR form, keeping the per-vertex edge order
+     * @param graph the source graph
+     * @return compact copy of the graph
+     */
+    public static CompactGraph fromGraph(GraphView graph) {
+        if (graph instanceof CompactGraph) {
+            return (CompactGraph) graph;
+        }
+        if (graph instanceof MappedGraph) {
+            return ((MappedGraph) graph).toCompact();
+        }
+
+        int n = graph.getN();
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + graph.degree(u);
+        }
+
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        for (int u = 0; u < n; u++) {
+            int base = offsets[u];
+            int deg = graph.degree(u);
+            for (int i = 0; i < deg; i++) {
+                targets[base + i] = graph.target(u, i);
+                weights[base + i] = graph.weight(u, i);
+            }
+        }
+
+        return new CompactGraph(n, graph.isDirected(), offsets, targets, weights);
+    }
+
+    /**
+     * Build a CSR graph from parallel edge arrays using a stable counting sort by source.
+     * For undirected graphs each edge is stored in both directions, as Graph.addEdge does.
+     * @param n number of vertices
+     * @param directed true if directed graph
+     * @param from edge sources
+     * @param to edge targets
+     * @param weight edge weights
+     * @param count number of edges to read from the arrays
+     * @return compact graph
+     */
+    public static CompactGraph fromEdges(int n, boolean directed,
+                                         int[] from, int[] to, int[] weight, int count) {
+        int[] offsets = new int[n + 1];
+        for (int k = 0; k < count; k++) {
+            offsets[from[k] + 1]++;
+            if (!directed) {
+                offsets[to[k] + 1]++;
+            }
+        }
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+
+        int arcs = offsets[n];
+        int[] targets = new int[arcs];
+        int[] weights = new int[arcs];
+        int[] cursor = new int[n];
+        System.arraycopy(offsets, 0, cursor, 0, n);
+
+        for (int k = 0; k < count; k++) {
+            int pos = cursor[from[k]]++;
+            targets[pos] = to[k];
+            weights[pos] = weight[k];
+            if (!directed) {
+                pos = cursor[to[k]]++;
+                targets[pos] = from[k];
+                weights[pos] = weight[k];
+            }
+        }
+
+        return new CompactGraph(n, directed, offsets, targets, weights);
+    }
+
+    /**
+     * Get the reverse graph (transpose)
+     */
+    public CompactGraph getReverse() {
+        if (!directed) {
+            throw new UnsupportedOperationException("Cannot reverse undirected graph");
+        }
+
+        int[] revOffsets = new int[n + 1];
+        for (int k = 0; k < targets.length; k++) {
+            revOffsets[targets[k] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            revOffsets[v + 1] += revOffsets[v];
+        }
+
+        int[] revTargets = new int[targets.length];
+        int[] revWeights = new int[targets.length];
+        int[] cursor = new int[n];
+        System.arraycopy(revOffsets, 0, cursor, 0, n);
+
+        for (int u = 0; u < n; u++) {
+            for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                int pos = cursor[targets[k]]++;
+                revTargets[pos] = u;
+                revWeights[pos] = weights[k];
+            }
+        }
+
+        return new CompactGraph(n, true, revOffsets, revTargets, revWeights);
+    }
+
+    @Override
+    public int getN() {
+        return n;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return directed ? targets.length : targets.length / 2;
+    }
+
+    @Override
+    public int degree(int u) {
+        return offsets[u + 1] - offsets[u];
+    }
+
+    @Override
+    public int target(int u, int i) {
+        return targets[offsets[u] + i];
+    }
+
+    @Override
+    public int weight(int u, int i) {
+        return weights[offsets[u] + i];
+    }
+
+    @Override
+    public void forEachNeighbor(int u, IntIntConsumer visitor) {
+        for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+            visitor.accept(targets[k], weights[k]);
+        }
+    }
+
+    /**
+     * Get the row offsets array (length n + 1). Must not be modified.
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Get the edge targets array. Must not be modified.
+     */
+    public int[] getTargets() {
+        return targets;
+    }
+
+    /**
+     * Get the edge weights array. Must not be modified.
+     */
+    public int[] getWeights() {
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("CompactGraph(n=%d, edges=%d, %s)\n",
+                n, getEdgeCount(), directed ? "directed" : "undirected"));
+        for (int u = 0; u < n; u++) {
+            if (offsets[u] != offsets[u + 1]) {
+                sb.append(String.format("  %d: [", u));
+                for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                    if (k > offsets[u]) {
+                        sb.append(", ");
+                    }
+                    sb.append(String.format("->%d(w=%d)", targets[k], weights[k]));
+                }
+                sb.append("]\n");
+            }
+        }
+        return sb.toString();
+    }
+}
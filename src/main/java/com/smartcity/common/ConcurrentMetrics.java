@@ -0,0 +1,201 @@
+package com.smartcity.common;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe Metrics for parallel algorithms.
+ * Every counter is a LongAdder, whose striped cells keep concurrent increments
+ * from contending on one cache line; values are summed on read. Each thread keeps
+ * its own stack of open phases, so phases nest per thread, and completed phase
+ * times are merged into shared per-path totals.
+ */
+public class ConcurrentMetrics implements Metrics {
+    private final ConcurrentHashMap<String, LongAdder> counters;
+    private final Map<String, Long> phases; // Guarded by itself
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, String>> childPaths; // Parent -> name -> path
+    private final ThreadLocal<Deque<long[]>> openStarts;
+    private final ThreadLocal<Deque<String>> openPaths;
+    private volatile long startTime;
+    private volatile long endTime;
+
+    public ConcurrentMetrics() {
+        this.counters = new ConcurrentHashMap<>();
+        this.phases = new LinkedHashMap<>();
+        this.childPaths = new ConcurrentHashMap<>();
+        this.openStarts = ThreadLocal.withInitial(ArrayDeque::new);
+        this.openPaths = ThreadLocal.withInitial(ArrayDeque::new);
+    }
+
+    /**
+     * Counter backed by one LongAdder
+     */
+    private static final class AdderCounter implements Counter {
+        private final LongAdder adder;
+
+        AdderCounter(LongAdder adder) {
+            this.adder = adder;
+        }
+
+        @Override
+        public void increment() {
+            adder.increment();
+        }
+
+        @Override
+        public void add(long amount) {
+            adder.add(amount);
+        }
+
+        @Override
+        public long get() {
+            return adder.sum();
+        }
+    }
+
+    private LongAdder adder(String name) {
+        LongAdder adder = counters.get(name);
+        return adder != null ? adder : counters.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    @Override
+    public Counter counter(String name) {
+        return new AdderCounter(adder(name));
+    }
+
+    @Override
+    public void increment(String name) {
+        adder(name).increment();
+    }
+
+    @Override
+    public void increment(String name, int amount) {
+        adder(name).add(amount);
+    }
+
+    @Override
+    public long getCount(String name) {
+        LongAdder adder = counters.get(name);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    @Override
+    public void startTimer() {
+        startTime = System.nanoTime();
+    }
+
+    @Override
+    public void stopTimer() {
+        endTime = System.nanoTime();
+    }
+
+    @Override
+    public long getElapsedNanos() {
+        return endTime - startTime;
+    }
+
+    @Override
+    public double getElapsedMillis() {
+        return getElapsedNanos() / 1_000_000.0;
+    }
+
+    @Override
+    public void startPhase(String name) {
+        Deque<String> paths = openPaths.get();
+        String path = paths.isEmpty() ? name : childPath(paths.peek(), name);
+        synchronized (phases) {
+            phases.putIfAbsent(path, 0L);
+        }
+        paths.push(path);
+        openStarts.get().push(new long[]{System.nanoTime()});
+    }
+
+    @Override
+    public void endPhase(String name) {
+        long now = System.nanoTime();
+        Deque<String> paths = openPaths.get();
+        String path = paths.peek();
+        if (path == null || !MetricsImpl.isLeaf(path, name)) {
+            throw new IllegalStateException("Phase " + name + " is not the innermost open phase (" + path + ")");
+        }
+        paths.pop();
+        long elapsed = now - openStarts.get().pop()[0];
+        synchronized (phases) {
+            phases.merge(path, elapsed, Long::sum);
+        }
+    }
+
+    /**
+     * Path of phase name under parent, concatenated only the first time
+     */
+    private String childPath(String parent, String name) {
+        ConcurrentHashMap<String, String> children = childPaths.get(parent);
+        if (children == null) {
+            childPaths.putIfAbsent(parent, new ConcurrentHashMap<>());
+            children = childPaths.get(parent);
+        }
+        String path = children.get(name);
+        if (path == null) {
+            children.putIfAbsent(name, parent + "." + name);
+            path = children.get(name);
+        }
+        return path;
+    }
+
+    @Override
+    public long getPhaseNanos(String path) {
+        synchronized (phases) {
+            return phases.getOrDefault(path, 0L);
+        }
+    }
+
+    @Override
+    public Map<String, Long> getPhases() {
+        synchronized (phases) {
+            return new LinkedHashMap<>(phases);
+        }
+    }
+
+    /**
+     * Reset counters and phase totals; counter handles stay valid.
+     * Only the calling thread's open phases are discarded.
+     */
+    @Override
+    public void reset() {
+        counters.values().forEach(LongAdder::reset);
+        synchronized (phases) {
+            phases.clear();
+        }
+        openPaths.get().clear();
+        openStarts.get().clear();
+        startTime = 0;
+        endTime = 0;
+    }
+
+    /**
+     * Print the elapsed time, every non-zero counter sorted by name and the phase tree
+     */
+    @Override
+    public void printSummary() {
+        System.out.println("=== Metrics Summary ===");
+        System.out.printf("Execution time: %.3f ms%n", getElapsedMillis());
+        System.out.println("Operation counts:");
+        Map<String, LongAdder> sorted = new TreeMap<>(counters);
+        sorted.forEach((name, adder) -> {
+            long value = adder.sum();
+            if (value != 0) {
+                System.out.printf("  %s: %d%n", name, value);
+            }
+        });
+        Map<String, Long> snapshot = getPhases();
+        if (!snapshot.isEmpty()) {
+            System.out.println("Phases:");
+            MetricsImpl.printPhases(snapshot, null, 1);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.smartcity.common;
+
+/**
+ * Handle to a single named counter, obtained once from Metrics.counter(name).
+ * Updating through a handle skips the name lookup, so it is cheap enough for inner loops.
+ */
+public interface Counter {
+    /**
+     * Add 1 to the counter
+     */
+    void increment();
+
+    /**
+     * Add amount to the counter
+     */
+    void add(long amount);
+
+    /**
+     * Get the current value
+     */
+    long get();
+}
@@ -0,0 +1,57 @@
+package com.smartcity.common;
+
+import java.util.Arrays;
+
+/**
+ * Growable edge list in three parallel primitive arrays.
+ * Used by the loaders to hold edges until the graph header is known.
+ */
+final class EdgeBuffer {
+    int[] from;
+    int[] to;
+    int[] weight;
+    int size;
+
+    EdgeBuffer() {
+        this(16);
+    }
+
+    EdgeBuffer(int capacity) {
+        capacity = Math.max(1, capacity);
+        from = new int[capacity];
+        to = new int[capacity];
+        weight = new int[capacity];
+    }
+
+    /**
+     * Append edge (u, v) with weight w
+     */
+    void add(int u, int v, int w) {
+        if (size == from.length) {
+            int capacity = size * 2;
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+        }
+        from[size] = u;
+        to[size] = v;
+        weight[size] = w;
+        size++;
+    }
+
+    /**
+     * Add all buffered edges to a graph in insertion order
+     */
+    void addTo(Graph graph) {
+        for (int k = 0; k < size; k++) {
+            graph.addEdge(from[k], to[k], weight[k]);
+        }
+    }
+
+    /**
+     * Build a CSR graph from the buffered edges
+     */
+    CompactGraph toCompact(int n, boolean directed) {
+        return CompactGraph.fromEdges(n, directed, from, to, weight, size);
+    }
+}
@@ -0,0 +1,356 @@
+package com.smartcity.common;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Parallel loader for plain-text edge lists (SNAP, CSV, TSV).
+ * Each non-empty line is "u v [w]" with vertices as non-negative integers and an
+ * optional integer weight (default 1); fields are separated by any mix of spaces,
+ * tabs and commas. Lines starting with '#' or '%' are comments. A first data line
+ * that does not start with a number (a CSV/TSV header such as "source,target,weight")
+ * is skipped.
+ *
+ * The file is memory-mapped in newline-aligned chunks that are parsed concurrently,
+ * then the CSR is built with a parallel counting sort by source vertex. Edges of
+ * each vertex keep their file order, so the result equals CompactGraph.fromEdges
+ * over the edges in file order. The vertex count is the largest id + 1.
+ */
+public final class EdgeListLoader {
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+    private static final int MAX_CHUNK_BYTES = 1 << 26;
+    private static final int SCAN_BYTES = 1 << 12;
+    private static final int EDGE_GRAIN = 1 << 16;
+    private static final int VERTEX_GRAIN = 1 << 12;
+
+    private EdgeListLoader() {
+    }
+
+    /**
+     * Load a directed edge list using the common pool
+     * @param filename path to the edge list
+     * @return GraphData with a CompactGraph, source 0 and weight model "edge"
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    public static GraphLoader.GraphData load(String filename) throws IOException {
+        return load(filename, true, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Load an edge list
+     * @param filename path to the edge list
+     * @param directed false to store every edge in both directions
+     * @param pool the pool parsing chunks and building the CSR
+     * @return GraphData with a CompactGraph, source 0 and weight model "edge"
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    public static GraphLoader.GraphData load(String filename, boolean directed, ForkJoinPool pool)
+            throws IOException {
+        Path path = Paths.get(filename);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long target = size / (4L * pool.getParallelism());
+            int chunkBytes = (int) Math.max(MIN_CHUNK_BYTES, Math.min(MAX_CHUNK_BYTES, target));
+            CompactGraph graph = load(channel, chunkBytes, directed, pool);
+            return new GraphLoader.GraphData(graph, 0, "edge");
+        }
+    }
+
+    /**
+     * Parse and build with an explicit nominal chunk size
+     */
+    static CompactGraph load(FileChannel channel, int chunkBytes, boolean directed, ForkJoinPool pool)
+            throws IOException {
+        long[] bounds = chunkBounds(channel, chunkBytes);
+        int chunks = bounds.length - 1;
+        EdgeBuffer[] parsed = new EdgeBuffer[chunks];
+        int[] maxVertex = new int[chunks];
+
+        try {
+            Parallel.forRange(pool, 0, chunks, 1, (from, to) -> {
+                for (int c = from; c < to; c++) {
+                    try {
+                        MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY,
+                                bounds[c], bounds[c + 1] - bounds[c]);
+                        EdgeBuffer edges = new EdgeBuffer(bytes.limit() / 8);
+                        maxVertex[c] = parse(bytes, bounds[c], edges);
+                        parsed[c] = edges;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        // Concatenate the chunk buffers in file order
+        int[] base = new int[chunks + 1];
+        int n = 0;
+        for (int c = 0; c < chunks; c++) {
+            long end = (long) base[c] + parsed[c].size;
+            if (end > Integer.MAX_VALUE - 8) {
+                throw new IOException("Too many edges: more than " + base[c]);
+            }
+            base[c + 1] = (int) end;
+            n = Math.max(n, maxVertex[c] + 1);
+        }
+        int m = base[chunks];
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] weight = new int[m];
+        Parallel.forRange(pool, 0, chunks, 1, (lo, hi) -> {
+            for (int c = lo; c < hi; c++) {
+                System.arraycopy(parsed[c].from, 0, from, base[c], parsed[c].size);
+                System.arraycopy(parsed[c].to, 0, to, base[c], parsed[c].size);
+                System.arraycopy(parsed[c].weight, 0, weight, base[c], parsed[c].size);
+                parsed[c] = null;
+            }
+        });
+
+        return buildCsr(n, directed, from, to, weight, pool);
+    }
+
+    /**
+     * Split [0, size) into chunks that end just after a newline (or at end of file)
+     */
+    private static long[] chunkBounds(FileChannel channel, int chunkBytes) throws IOException {
+        long size = channel.size();
+        int estimate = (int) Math.min(Integer.MAX_VALUE - 8, size / chunkBytes + 2);
+        long[] bounds = new long[estimate];
+        int count = 0;
+        bounds[count++] = 0;
+
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_BYTES);
+        long pos = 0;
+        while (size - pos > chunkBytes) {
+            long next = nextLineStart(channel, scan, pos + chunkBytes, size);
+            if (next >= size) {
+                break;
+            }
+            if (count + 1 == bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            bounds[count++] = next;
+            pos = next;
+        }
+        if (count + 1 > bounds.length) {
+            bounds = Arrays.copyOf(bounds, count + 1);
+        }
+        bounds[count++] = size;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * Position just after the first newline at or after pos, or size if there is none
+     */
+    private static long nextLineStart(FileChannel channel, ByteBuffer scan, long pos, long size)
+            throws IOException {
+        while (pos < size) {
+            scan.clear();
+            int read = channel.read(scan, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    /**
+     * Parse every line of one chunk into edges
+     * @param bytes the chunk, starting at a line start
+     * @param offset file position of the chunk, for error messages
+     * @param edges receives the parsed edges in order
+     * @return the largest vertex id seen, or -1 if none
+     */
+    private static int parse(ByteBuffer bytes, long offset, EdgeBuffer edges) throws IOException {
+        int limit = bytes.limit();
+        int maxVertex = -1;
+        int p = 0;
+        boolean header = offset == 0; // Only the file's first chunk may start with a header
+
+        while (p < limit) {
+            int lineStart = p;
+            p = skipSeparators(bytes, p, limit);
+            if (p == limit) {
+                break;
+            }
+            byte b = bytes.get(p);
+            if (b == '\n' || b == '\r' || b == '#' || b == '%') {
+                p = skipLine(bytes, p, limit);
+                continue;
+            }
+            if (header) {
+                header = false;
+                if ((b < '0' || b > '9') && b != '-') {
+                    p = skipLine(bytes, p, limit);
+                    continue;
+                }
+            }
+
+            long u = 0;
+            long v = 0;
+            long w = 1;
+            int fields = 0;
+            boolean negative = false;
+            while (p < limit) {
+                b = bytes.get(p);
+                if (b == '\n' || b == '\r' || b == '#' || b == '%') {
+                    break;
+                }
+                negative = b == '-';
+                int start = negative ? p + 1 : p;
+                long value = 0;
+                int q = start;
+                while (q < limit) {
+                    int digit = bytes.get(q) - '0';
+                    if (digit < 0 || digit > 9) {
+                        break;
+                    }
+                    value = value * 10 + digit;
+                    if (value > Integer.MAX_VALUE + 1L) {
+                        throw malformed(offset + lineStart, "number out of range");
+                    }
+                    q++;
+                }
+                if (q == start || (q < limit && !isSeparator(bytes.get(q)) && !isLineEnd(bytes.get(q)))) {
+                    throw malformed(offset + lineStart, "expected an integer");
+                }
+                if (negative) {
+                    value = -value;
+                } else if (value > Integer.MAX_VALUE) {
+                    throw malformed(offset + lineStart, "number out of range");
+                }
+                switch (fields++) {
+                    case 0:
+                        u = value;
+                        break;
+                    case 1:
+                        v = value;
+                        break;
+                    case 2:
+                        w = value;
+                        break;
+                    default:
+                        throw malformed(offset + lineStart, "more than three fields");
+                }
+                p = skipSeparators(bytes, q, limit);
+            }
+
+            if (fields < 2) {
+                throw malformed(offset + lineStart, "expected \"u v [w]\"");
+            }
+            if (u < 0 || v < 0) {
+                throw malformed(offset + lineStart, "negative vertex id");
+            }
+            edges.add((int) u, (int) v, (int) w);
+            maxVertex = (int) Math.max(maxVertex, Math.max(u, v));
+            p = skipLine(bytes, p, limit);
+        }
+        return maxVertex;
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\t' || b == ',';
+    }
+
+    private static boolean isLineEnd(byte b) {
+        return b == '\n' || b == '\r' || b == '#' || b == '%';
+    }
+
+    private static int skipSeparators(ByteBuffer bytes, int p, int limit) {
+        while (p < limit && isSeparator(bytes.get(p))) {
+            p++;
+        }
+        return p;
+    }
+
+    /**
+     * Position after the next newline
+     */
+    private static int skipLine(ByteBuffer bytes, int p, int limit) {
+        while (p < limit && bytes.get(p) != '\n') {
+            p++;
+        }
+        return p + 1;
+    }
+
+    private static IOException malformed(long position, String reason) {
+        return new IOException("Malformed edge line at byte " + position + ": " + reason);
+    }
+
+    /**
+     * Parallel counting sort of the edges by source vertex.
+     * Arcs are scattered as edge indices, then each vertex's slice is sorted so
+     * its edges appear in file order regardless of thread interleaving.
+     */
+    private static CompactGraph buildCsr(int n, boolean directed, int[] from, int[] to, int[] weight,
+                                         ForkJoinPool pool) throws IOException {
+        int m = from.length;
+        AtomicIntegerArray degree = new AtomicIntegerArray(n);
+        Parallel.forRange(pool, 0, m, EDGE_GRAIN, (lo, hi) -> {
+            for (int k = lo; k < hi; k++) {
+                degree.incrementAndGet(from[k]);
+                if (!directed) {
+                    degree.incrementAndGet(to[k]);
+                }
+            }
+        });
+
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            long end = (long) offsets[u] + degree.get(u);
+            if (end > Integer.MAX_VALUE - 8) {
+                throw new IOException("Too many arcs for CSR arrays");
+            }
+            offsets[u + 1] = (int) end;
+        }
+        int arcs = offsets[n];
+
+        // Reuse the degree counters as per-vertex insertion cursors
+        for (int u = 0; u < n; u++) {
+            degree.set(u, offsets[u]);
+        }
+        int[] edgeIndex = new int[arcs];
+        Parallel.forRange(pool, 0, m, EDGE_GRAIN, (lo, hi) -> {
+            for (int k = lo; k < hi; k++) {
+                edgeIndex[degree.getAndIncrement(from[k])] = k;
+                if (!directed) {
+                    edgeIndex[degree.getAndIncrement(to[k])] = k;
+                }
+            }
+        });
+
+        int[] targets = new int[arcs];
+        int[] weights = new int[arcs];
+        Parallel.forRange(pool, 0, n, VERTEX_GRAIN, (lo, hi) -> {
+            for (int u = lo; u < hi; u++) {
+                int start = offsets[u];
+                int end = offsets[u + 1];
+                Arrays.sort(edgeIndex, start, end);
+                for (int p = start; p < end; p++) {
+                    int k = edgeIndex[p];
+                    targets[p] = from[k] == u ? to[k] : from[k];
+                    weights[p] = weight[k];
+                }
+            }
+        });
+
+        return new CompactGraph(n, directed, offsets, targets, weights);
+    }
+}
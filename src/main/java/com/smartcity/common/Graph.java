@@ -4,11 +4,19 @@ import java.util.*;
 
 /**
  * Directed weighted graph representation using adjacency lists.
+ * Each vertex keeps its edges in growable primitive target/weight arrays,
+ * so the indexed accessors and forEachNeighbor never allocate.
  */
-public class Graph {
+public class Graph implements GraphView {
+    private static final int[] NO_EDGES = new int[0];
+    private static final int INITIAL_CAPACITY = 4;
+
     private final int n;
-    private final List<List<Edge>> adj;
+    private final int[][] targets;
+    private final int[][] weights;
+    private final int[] degrees;
     private final boolean directed;
+    private long version;
 
     /**
      * Edge representation with destination and weight
@@ -36,32 +44,99 @@ public class Graph {
     public Graph(int n, boolean directed) {
         this.n = n;
         this.directed = directed;
-        this.adj = new ArrayList<>(n);
-        for (int i = 0; i < n; i++) {
-            adj.add(new ArrayList<>());
-        }
+        this.targets = new int[n][];
+        this.weights = new int[n][];
+        this.degrees = new int[n];
+        Arrays.fill(targets, NO_EDGES);
+        Arrays.fill(weights, NO_EDGES);
     }
 
     /**
      * Add an edge from u to v with weight w
      */
     public void addEdge(int u, int v, int weight) {
-        adj.get(u).add(new Edge(v, weight));
+        append(u, v, weight);
         if (!directed) {
-            adj.get(v).add(new Edge(u, weight));
+            append(v, u, weight);
+        }
+        version++;
+    }
+
+    /**
+     * Append one adjacency entry, growing the vertex arrays when full
+     */
+    private void append(int u, int v, int weight) {
+        int deg = degrees[u];
+        if (deg == targets[u].length) {
+            int capacity = Math.max(INITIAL_CAPACITY, deg * 2);
+            targets[u] = Arrays.copyOf(targets[u], capacity);
+            weights[u] = Arrays.copyOf(weights[u], capacity);
         }
+        targets[u][deg] = v;
+        weights[u][deg] = weight;
+        degrees[u] = deg + 1;
     }
 
     /**
-     * Get all neighbors of vertex u
+     * Get all neighbors of vertex u.
+     * Returns a read-only view that creates an Edge per access; hot loops
+     * should use degree/target/weight or forEachNeighbor instead.
      */
     public List<Edge> getNeighbors(int u) {
-        return adj.get(u);
+        final int[] t = targets[u];
+        final int[] w = weights[u];
+        final int deg = degrees[u];
+        return new AbstractList<Edge>() {
+            @Override
+            public Edge get(int i) {
+                Objects.checkIndex(i, deg);
+                return new Edge(t[i], w[i]);
+            }
+
+            @Override
+            public int size() {
+                return deg;
+            }
+        };
+    }
+
+    @Override
+    public int degree(int u) {
+        return degrees[u];
+    }
+
+    @Override
+    public int target(int u, int i) {
+        return targets[u][i];
+    }
+
+    @Override
+    public int weight(int u, int i) {
+        return weights[u][i];
+    }
+
+    @Override
+    public void forEachNeighbor(int u, IntIntConsumer visitor) {
+        int[] t = targets[u];
+        int[] w = weights[u];
+        int deg = degrees[u];
+        for (int i = 0; i < deg; i++) {
+            visitor.accept(t[i], w[i]);
+        }
+    }
+
+    /**
+     * Get the modification version, incremented by every addEdge
+     */
+    @Override
+    public long getVersion() {
+        return version;
     }
 
     /**
      * Get number of vertices
      */
+    @Override
     public int getN() {
         return n;
     }
@@ -69,6 +144,7 @@ public class Graph {
     /**
      * Check if graph is directed
      */
+    @Override
     public boolean isDirected() {
         return directed;
     }
@@ -83,8 +159,10 @@ public class Graph {
 
         Graph rev = new Graph(n, true);
         for (int u = 0; u < n; u++) {
-            for (Edge e : adj.get(u)) {
-                rev.addEdge(e.to, u, e.weight);
+            int[] t = targets[u];
+            int[] w = weights[u];
+            for (int i = 0; i < degrees[u]; i++) {
+                rev.addEdge(t[i], u, w[i]);
             }
         }
         return rev;
@@ -93,10 +171,11 @@ public class Graph {
     /**
      * Get total number of edges
      */
+    @Override
     public int getEdgeCount() {
         int count = 0;
         for (int i = 0; i < n; i++) {
-            count += adj.get(i).size();
+            count += degrees[i];
         }
         return directed ? count : count / 2;
     }
@@ -107,10 +186,10 @@ public class Graph {
         sb.append(String.format("Graph(n=%d, edges=%d, %s)\n",
                 n, getEdgeCount(), directed ? "directed" : "undirected"));
         for (int u = 0; u < n; u++) {
-            if (!adj.get(u).isEmpty()) {
-                sb.append(String.format("  %d: %s\n", u, adj.get(u)));
+            if (degrees[u] > 0) {
+                sb.append(String.format("  %d: %s\n", u, getNeighbors(u)));
             }
         }
         return sb.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,238 @@
+package com.smartcity.common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Two-level cache of parsed graph files.
+ * Entries are keyed by absolute path, size, modification time and a CRC32C of
+ * the content, so an edited file is always re-parsed. Parsed graphs are kept in
+ * memory and written to the cache directory as GraphSnapshot files, which later
+ * processes map instead of parsing again.
+ *
+ * Memory hits only compare size and modification time; the content is hashed when
+ * they differ or no entry exists. Parsed graphs are returned as a heap CompactGraph,
+ * disk hits (and .gsnap inputs) as the MappedGraph itself, so loading a snapshot
+ * copies nothing onto the heap. When a file changes, the snapshots of its earlier
+ * versions are deleted. Safe for concurrent use.
+ */
+public class GraphCache {
+    /** Directory used when none is given */
+    public static final String DEFAULT_DIRECTORY = ".graph-cache";
+
+    private static final int HASH_BUFFER_BYTES = 1 << 16;
+
+    private final Path directory;
+    private final Map<String, Entry> memory;
+    private final Metrics metrics;
+
+    /**
+     * Where a graph was found
+     */
+    public enum Source {
+        /** Already in memory */
+        MEMORY,
+        /** Mapped from a snapshot in the cache directory */
+        DISK,
+        /** Parsed from the original file */
+        PARSED
+    }
+
+    /**
+     * A loaded graph plus how and how fast it was obtained
+     */
+    public static class LoadResult {
+        public final GraphLoader.GraphData data;
+        public final Source source;
+        public final long loadTimeNanos;
+
+        public LoadResult(GraphLoader.GraphData data, Source source, long loadTimeNanos) {
+            this.data = data;
+            this.source = source;
+            this.loadTimeNanos = loadTimeNanos;
+        }
+    }
+
+    /**
+     * In-memory entry with the key it was loaded under
+     */
+    private static final class Entry {
+        final String key;
+        final long size;
+        final long modified;
+        final GraphLoader.GraphData data;
+
+        Entry(String key, long size, long modified, GraphLoader.GraphData data) {
+            this.key = key;
+            this.size = size;
+            this.modified = modified;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Create a cache storing snapshots under DEFAULT_DIRECTORY
+     */
+    public GraphCache() {
+        this(Paths.get(DEFAULT_DIRECTORY));
+    }
+
+    /**
+     * Create a cache storing snapshots under directory (created on first write)
+     */
+    public GraphCache(Path directory) {
+        this.directory = directory;
+        this.memory = new ConcurrentHashMap<>();
+        this.metrics = new ConcurrentMetrics();
+    }
+
+    /**
+     * Load a graph file through the cache
+     * @param filename any file GraphLoader.load can read
+     * @return the graph and where it came from
+     * @throws IOException if the file cannot be read
+     */
+    public LoadResult load(String filename) throws IOException {
+        long start = System.nanoTime();
+        Path path = Paths.get(filename).toAbsolutePath().normalize();
+        long size = Files.size(path);
+        long modified = Files.getLastModifiedTime(path).toMillis();
+
+        Entry entry = memory.get(path.toString());
+        if (entry != null && entry.size == size && entry.modified == modified) {
+            count("memory_hits");
+            return new LoadResult(entry.data, Source.MEMORY, System.nanoTime() - start);
+        }
+
+        // Only hash when the stamps changed; the key covers them, so the old entry is stale
+        String key = keyOf(path, size, modified);
+        if (entry != null && !entry.key.equals(key)) {
+            deleteSnapshot(directory.resolve(entry.key + GraphSnapshot.EXTENSION));
+        }
+
+        Path snapshot = directory.resolve(key + GraphSnapshot.EXTENSION);
+        GraphLoader.GraphData data = null;
+        Source source = Source.DISK;
+        if (Files.isRegularFile(snapshot)) {
+            try {
+                data = GraphSnapshot.open(snapshot);
+            } catch (IOException e) {
+                // Unreadable or truncated snapshot: fall back to parsing and rewrite it
+                data = null;
+            }
+        }
+        if (data == null) {
+            source = Source.PARSED;
+            GraphLoader.GraphData parsed = GraphLoader.load(path.toString());
+            data = parsed.graph instanceof MappedGraph ? parsed
+                    : new GraphLoader.GraphData(CompactGraph.fromGraph(parsed.graph), parsed.source, parsed.weightModel);
+            writeSnapshot(data, snapshot);
+            deleteStaleSnapshots(path, snapshot);
+        }
+
+        memory.put(path.toString(), new Entry(key, size, modified, data));
+        count(source == Source.DISK ? "disk_hits" : "misses");
+        return new LoadResult(data, source, System.nanoTime() - start);
+    }
+
+    /**
+     * Drop all in-memory entries; snapshots on disk are kept
+     */
+    public void clearMemory() {
+        memory.clear();
+    }
+
+    /**
+     * Get the snapshot directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get memory_hits/disk_hits/misses counters
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    private void count(String name) {
+        metrics.increment(name);
+    }
+
+    /**
+     * Write through a temporary file so concurrent readers never see a partial snapshot
+     */
+    private void writeSnapshot(GraphLoader.GraphData data, Path snapshot) {
+        try {
+            Files.createDirectories(directory);
+            Path tmp = Files.createTempFile(directory, "tmp-", GraphSnapshot.EXTENSION);
+            try {
+                GraphSnapshot.write(data, tmp);
+                Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            // The disk level is best effort; the in-memory entry still serves this process
+            System.err.println("Warning: could not write graph cache " + snapshot + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Delete snapshots of earlier versions of path, e.g. left by previous processes.
+     * They share the path hash segment of the key; a colliding path only loses its snapshot.
+     */
+    private void deleteStaleSnapshots(Path path, Path current) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        String glob = String.format("*-%08x-*%s", path.toString().hashCode(), GraphSnapshot.EXTENSION);
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, glob)) {
+            for (Path snapshot : stale) {
+                if (!snapshot.equals(current) && !snapshot.getFileName().toString().startsWith("tmp-")) {
+                    deleteSnapshot(snapshot);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: could not clean graph cache " + directory + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Best effort: a snapshot still mapped on some platforms cannot be deleted yet
+     */
+    private static void deleteSnapshot(Path snapshot) {
+        try {
+            Files.deleteIfExists(snapshot);
+        } catch (IOException e) {
+            System.err.println("Warning: could not delete stale graph cache " + snapshot + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cache key: CRC32C of the content, then hashes of path, size and modification time
+     */
+    private static String keyOf(Path path, long size, long modified) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HASH_BUFFER_BYTES);
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return String.format("%08x-%08x-%x-%x", crc.getValue(), path.toString().hashCode(), size, modified);
+    }
+}
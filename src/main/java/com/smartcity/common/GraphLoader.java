@@ -1,33 +1,73 @@
 package com.smartcity.common;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
 
-import java.io.FileReader;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
 
 /**
  * Utility class to load graph data from JSON files.
+ * Documents are read token by token with a streaming JsonReader, so no JSON tree
+ * is built. Top-level keys may appear in any order: edges that arrive before
+ * "n" and "directed" are buffered in primitive arrays until the header is known.
  */
 public class GraphLoader {
+    /** Extensions load() reads as plain-text edge lists */
+    public static final List<String> EDGE_LIST_EXTENSIONS = List.of(".txt", ".csv", ".tsv", ".edges", ".el");
 
     /**
      * Graph data structure from JSON
      */
     public static class GraphData {
-        public Graph graph;
+        public GraphView graph;
         public int source;
         public String weightModel;
 
-        public GraphData(Graph graph, int source, String weightModel) {
+        public GraphData(GraphView graph, int source, String weightModel) {
             this.graph = graph;
             this.source = source;
             this.weightModel = weightModel;
         }
     }
 
+    /**
+     * Load a graph file, choosing the reader by extension:
+     * GraphSnapshot.EXTENSION files are memory mapped, edge lists (see EDGE_LIST_EXTENSIONS)
+     * go through EdgeListLoader as directed graphs, anything else is parsed as JSON
+     * @param filename path to the graph file
+     * @return GraphData object containing the graph and metadata
+     * @throws IOException if file cannot be read
+     */
+    public static GraphData load(String filename) throws IOException {
+        if (filename.endsWith(GraphSnapshot.EXTENSION)) {
+            return loadSnapshot(filename);
+        }
+        for (String extension : EDGE_LIST_EXTENSIONS) {
+            if (filename.endsWith(extension)) {
+                return EdgeListLoader.load(filename);
+            }
+        }
+        return loadFromFile(filename);
+    }
+
+    /**
+     * Open a binary snapshot written by GraphSnapshot; the graph reads its
+     * arrays directly from the mapped file
+     * @param filename path to the snapshot
+     * @return GraphData object whose graph is a MappedGraph
+     * @throws IOException if file cannot be read or is not a snapshot
+     */
+    public static GraphData loadSnapshot(String filename) throws IOException {
+        return GraphSnapshot.open(Paths.get(filename));
+    }
+
     /**
      * Load graph from JSON file
      * @param filename path to JSON file
@@ -35,29 +75,9 @@ public class GraphLoader {
      * @throws IOException if file cannot be read
      */
     public static GraphData loadFromFile(String filename) throws IOException {
-        Gson gson = new Gson();
-        JsonObject json = gson.fromJson(new FileReader(filename), JsonObject.class);
-
-        boolean directed = json.get("directed").getAsBoolean();
-        int n = json.get("n").getAsInt();
-
-        Graph graph = new Graph(n, directed);
-
-        JsonArray edges = json.getAsJsonArray("edges");
-        for (JsonElement edgeElement : edges) {
-            JsonObject edge = edgeElement.getAsJsonObject();
-            int u = edge.get("u").getAsInt();
-            int v = edge.get("v").getAsInt();
-            int w = edge.has("w") ? edge.get("w").getAsInt() : 1;
-
-            graph.addEdge(u, v, w);
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8)) {
+            return read(in, false);
         }
-
-        int source = json.has("source") ? json.get("source").getAsInt() : 0;
-        String weightModel = json.has("weight_model") ?
-                json.get("weight_model").getAsString() : "edge";
-
-        return new GraphData(graph, source, weightModel);
     }
 
     /**
@@ -66,28 +86,130 @@ public class GraphLoader {
      * @return GraphData object containing the graph and metadata
      */
     public static GraphData loadFromString(String jsonString) {
-        Gson gson = new Gson();
-        JsonObject json = gson.fromJson(jsonString, JsonObject.class);
-
-        boolean directed = json.get("directed").getAsBoolean();
-        int n = json.get("n").getAsInt();
+        try {
+            return read(new StringReader(jsonString), false);
+        } catch (IOException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
 
-        Graph graph = new Graph(n, directed);
+    /**
+     * Load graph from JSON file directly into compressed sparse row form.
+     * Edges are collected into primitive arrays, no Graph.Edge objects are created.
+     * @param filename path to JSON file
+     * @return GraphData object whose graph is a CompactGraph
+     * @throws IOException if file cannot be read
+     */
+    public static GraphData loadCompactFromFile(String filename) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8)) {
+            return read(in, true);
+        }
+    }
 
-        JsonArray edges = json.getAsJsonArray("edges");
-        for (JsonElement edgeElement : edges) {
-            JsonObject edge = edgeElement.getAsJsonObject();
-            int u = edge.get("u").getAsInt();
-            int v = edge.get("v").getAsInt();
-            int w = edge.has("w") ? edge.get("w").getAsInt() : 1;
+    /**
+     * Stream one graph document
+     * @param in source of the JSON document
+     * @param compact build a CompactGraph instead of a Graph
+     */
+    private static GraphData read(Reader in, boolean compact) throws IOException {
+        JsonReader reader = new JsonReader(in);
+
+        Boolean directed = null;
+        int n = -1;
+        int source = 0;
+        String weightModel = "edge";
+        Graph graph = null;
+        EdgeBuffer pending = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "directed":
+                    directed = reader.nextBoolean();
+                    break;
+                case "n":
+                    n = reader.nextInt();
+                    break;
+                case "source":
+                    source = reader.nextInt();
+                    break;
+                case "weight_model":
+                    weightModel = reader.nextString();
+                    break;
+                case "edges":
+                    if (!compact && directed != null && n >= 0) {
+                        // Header already seen: add edges to the graph as they are read
+                        graph = new Graph(n, directed);
+                        readEdges(reader, graph, null);
+                    } else {
+                        pending = new EdgeBuffer();
+                        readEdges(reader, null, pending);
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
 
-            graph.addEdge(u, v, w);
+        if (directed == null || n < 0) {
+            throw new JsonSyntaxException("Graph document must contain \"n\" and \"directed\"");
         }
 
-        int source = json.has("source") ? json.get("source").getAsInt() : 0;
-        String weightModel = json.has("weight_model") ?
-                json.get("weight_model").getAsString() : "edge";
+        GraphView result;
+        if (compact) {
+            result = (pending != null ? pending : new EdgeBuffer()).toCompact(n, directed);
+        } else {
+            if (graph == null) {
+                graph = new Graph(n, directed);
+                if (pending != null) {
+                    pending.addTo(graph);
+                }
+            }
+            result = graph;
+        }
+        return new GraphData(result, source, weightModel);
+    }
 
-        return new GraphData(graph, source, weightModel);
+    /**
+     * Read the edges array into either a graph or a buffer
+     */
+    private static void readEdges(JsonReader reader, Graph graph, EdgeBuffer buffer) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            int u = -1;
+            int v = -1;
+            int w = 1;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "u":
+                        u = reader.nextInt();
+                        break;
+                    case "v":
+                        v = reader.nextInt();
+                        break;
+                    case "w":
+                        w = reader.nextInt();
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+
+            if (u < 0 || v < 0) {
+                throw new JsonSyntaxException("Edge must contain \"u\" and \"v\" at " + reader.getPath());
+            }
+            if (graph != null) {
+                graph.addEdge(u, v, w);
+            } else {
+                buffer.add(u, v, w);
+            }
+        }
+        reader.endArray();
     }
-}
\ No newline at end of file
+}
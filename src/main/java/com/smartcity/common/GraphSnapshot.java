@@ -0,0 +1,185 @@
+package com.smartcity.common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary graph snapshot format, loaded by memory mapping.
+ *
+ * Layout (all values little-endian 32-bit ints):
+ * <pre>
+ *   magic "GSNP", format version, flags (bit 0 = directed),
+ *   n, arcs, source, weight_model byte length, weight_model UTF-8 bytes padded to 4,
+ *   offsets[n + 1], targets[arcs], weights[arcs]
+ * </pre>
+ * The arrays are the CSR form of the graph (see CompactGraph); undirected graphs
+ * store both directions of every edge. Each array must fit in one 2 GB mapping.
+ */
+public final class GraphSnapshot {
+    /** File extension used for snapshots */
+    public static final String EXTENSION = ".gsnap";
+
+    private static final int MAGIC = 0x504E5347; // "GSNP" read as little-endian
+    private static final int FORMAT_VERSION = 1;
+    private static final int FLAG_DIRECTED = 1;
+    private static final int FIXED_HEADER_BYTES = 7 * Integer.BYTES;
+    private static final int WRITE_CHUNK_INTS = 1 << 16;
+
+    private GraphSnapshot() {
+    }
+
+    /**
+     * Write a graph and its metadata as a snapshot file
+     * @param data graph, source and weight model to store
+     * @param path output file, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(GraphLoader.GraphData data, Path path) throws IOException {
+        CompactGraph graph = CompactGraph.fromGraph(data.graph);
+        byte[] model = data.weightModel.getBytes(StandardCharsets.UTF_8);
+        int n = graph.getN();
+        int arcs = graph.getTargets().length;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(FIXED_HEADER_BYTES + padded(model.length))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putInt(graph.isDirected() ? FLAG_DIRECTED : 0)
+                    .putInt(n)
+                    .putInt(arcs)
+                    .putInt(data.source)
+                    .putInt(model.length)
+                    .put(model);
+            header.position(header.capacity()).flip();
+            writeFully(channel, header);
+
+            ByteBuffer chunk = ByteBuffer.allocateDirect(WRITE_CHUNK_INTS * Integer.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            writeInts(channel, chunk, graph.getOffsets(), n + 1);
+            writeInts(channel, chunk, graph.getTargets(), arcs);
+            writeInts(channel, chunk, graph.getWeights(), arcs);
+        }
+    }
+
+    /**
+     * Open a snapshot by mapping its arrays read-only
+     * @param path snapshot file
+     * @return GraphData whose graph is a MappedGraph over the file
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static GraphLoader.GraphData open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer fixed = ByteBuffer.allocate(FIXED_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, fixed, 0);
+            fixed.flip();
+
+            if (fixed.getInt() != MAGIC) {
+                throw new IOException("Not a graph snapshot: " + path);
+            }
+            int version = fixed.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + path);
+            }
+            boolean directed = (fixed.getInt() & FLAG_DIRECTED) != 0;
+            int n = fixed.getInt();
+            int arcs = fixed.getInt();
+            int source = fixed.getInt();
+            int modelLength = fixed.getInt();
+            if (n < 0 || arcs < 0 || modelLength < 0) {
+                throw new IOException("Corrupt snapshot header: " + path);
+            }
+
+            ByteBuffer model = ByteBuffer.allocate(modelLength);
+            readFully(channel, model, FIXED_HEADER_BYTES);
+            String weightModel = new String(model.array(), StandardCharsets.UTF_8);
+
+            long position = FIXED_HEADER_BYTES + padded(modelLength);
+            long expected = position + 4L * (n + 1) + 8L * arcs;
+            if (channel.size() != expected) {
+                throw new IOException("Snapshot size " + channel.size() + " does not match header (" + expected + "): " + path);
+            }
+
+            IntBuffer offsets = map(channel, position, n + 1);
+            position += 4L * (n + 1);
+            IntBuffer targets = map(channel, position, arcs);
+            position += 4L * arcs;
+            IntBuffer weights = map(channel, position, arcs);
+
+            int edgeCount = directed ? arcs : arcs / 2;
+            MappedGraph graph = new MappedGraph(n, directed, edgeCount, offsets, targets, weights);
+            return new GraphLoader.GraphData(graph, source, weightModel);
+        }
+    }
+
+    /**
+     * Map one int section; the mapping stays valid after the channel is closed
+     */
+    private static IntBuffer map(FileChannel channel, long position, int count) throws IOException {
+        long bytes = 4L * count;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot section too large to map: " + bytes + " bytes");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, bytes)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asIntBuffer();
+    }
+
+    private static void writeInts(FileChannel channel, ByteBuffer chunk, int[] values, int count)
+            throws IOException {
+        for (int from = 0; from < count; from += WRITE_CHUNK_INTS) {
+            int to = Math.min(count, from + WRITE_CHUNK_INTS);
+            chunk.clear();
+            chunk.asIntBuffer().put(values, from, to - from);
+            chunk.limit((to - from) * Integer.BYTES);
+            writeFully(channel, chunk);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of snapshot");
+            }
+        }
+    }
+
+    private static int padded(int bytes) {
+        return (bytes + 3) & ~3;
+    }
+
+    /**
+     * Convert any graph file GraphLoader can read into a snapshot
+     * Usage: java com.smartcity.common.GraphSnapshot &lt;input&gt; &lt;output.gsnap&gt;
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: java com.smartcity.common.GraphSnapshot <input> <output" + EXTENSION + ">");
+            System.exit(1);
+        }
+
+        try {
+            GraphLoader.GraphData data = GraphLoader.load(args[0]);
+            write(data, Paths.get(args[1]));
+            System.out.printf("Wrote %s: n=%d, edges=%d%n",
+                    args[1], data.graph.getN(), data.graph.getEdgeCount());
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.smartcity.common;
+
+/**
+ * Read-only view of a weighted graph shared by all graph backends.
+ * Neighbors are addressed by index, so algorithms can walk adjacency
+ * without iterators or per-edge objects.
+ */
+public interface GraphView {
+    /**
+     * Get number of vertices
+     */
+    int getN();
+
+    /**
+     * Check if graph is directed
+     */
+    boolean isDirected();
+
+    /**
+     * Get total number of edges
+     */
+    int getEdgeCount();
+
+    /**
+     * Get the out-degree of vertex u
+     */
+    int degree(int u);
+
+    /**
+     * Get the target of the i-th outgoing edge of vertex u
+     */
+    int target(int u, int i);
+
+    /**
+     * Get the weight of the i-th outgoing edge of vertex u
+     */
+    int weight(int u, int i);
+
+    /**
+     * Get the modification version; it changes whenever edges are added.
+     * Immutable backends always return 0.
+     */
+    default long getVersion() {
+        return 0;
+    }
+
+    /**
+     * Visit every outgoing edge of vertex u in order
+     * @param u the vertex
+     * @param visitor receives (target, weight) of each edge
+     */
+    default void forEachNeighbor(int u, IntIntConsumer visitor) {
+        int deg = degree(u);
+        for (int i = 0; i < deg; i++) {
+            visitor.accept(target(u, i), weight(u, i));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.smartcity.common;
+
+/**
+ * Primitive callback receiving an edge target and weight, used to visit
+ * neighbors without boxing or Edge objects.
+ */
+@FunctionalInterface
+public interface IntIntConsumer {
+    /**
+     * Accept one outgoing edge
+     * @param target destination vertex
+     * @param weight edge weight
+     */
+    void accept(int target, int weight);
+}
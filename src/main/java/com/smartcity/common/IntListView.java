@@ -0,0 +1,64 @@
+package com.smartcity.common;
+
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Read-only List view over a slice of an int array.
+ * Elements are boxed only when accessed, so wrapping costs O(1).
+ */
+public final class IntListView extends AbstractList<Integer> implements RandomAccess {
+    private final int[] array;
+    private final int from;
+    private final int to;
+
+    /**
+     * View the elements array[from .. to - 1]
+     */
+    public IntListView(int[] array, int from, int to) {
+        Objects.checkFromToIndex(from, to, array.length);
+        this.array = array;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * View the whole array
+     */
+    public static IntListView of(int[] array) {
+        return new IntListView(array, 0, array.length);
+    }
+
+    @Override
+    public Integer get(int index) {
+        Objects.checkIndex(index, to - from);
+        return array[from + index];
+    }
+
+    /**
+     * Primitive access without boxing
+     */
+    public int getInt(int index) {
+        Objects.checkIndex(index, to - from);
+        return array[from + index];
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (o instanceof Integer) {
+            int value = (Integer) o;
+            for (int i = from; i < to; i++) {
+                if (array[i] == value) {
+                    return i - from;
+                }
+            }
+        }
+        return -1;
+    }
+}
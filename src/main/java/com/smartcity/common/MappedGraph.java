@@ -0,0 +1,122 @@
+package com.smartcity.common;
+
+import java.nio.IntBuffer;
+
+/**
+ * Read-only CSR graph whose arrays live in memory-mapped buffers.
+ * Created by GraphSnapshot.open; neighbors are read straight from the mapped
+ * file, nothing is copied onto the heap. Layout and semantics match CompactGraph.
+ */
+public final class MappedGraph implements GraphView {
+    private final int n;
+    private final boolean directed;
+    private final int edgeCount;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer weights;
+
+    MappedGraph(int n, boolean directed, int edgeCount,
+                IntBuffer offsets, IntBuffer targets, IntBuffer weights) {
+        this.n = n;
+        this.directed = directed;
+        this.edgeCount = edgeCount;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    @Override
+    public int getN() {
+        return n;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int degree(int u) {
+        return offsets.get(u + 1) - offsets.get(u);
+    }
+
+    @Override
+    public int target(int u, int i) {
+        return targets.get(offsets.get(u) + i);
+    }
+
+    @Override
+    public int weight(int u, int i) {
+        return weights.get(offsets.get(u) + i);
+    }
+
+    @Override
+    public void forEachNeighbor(int u, IntIntConsumer visitor) {
+        int end = offsets.get(u + 1);
+        for (int k = offsets.get(u); k < end; k++) {
+            visitor.accept(targets.get(k), weights.get(k));
+        }
+    }
+
+    /**
+     * Get the offsets buffer (n + 1 entries). Read-only view of the mapping.
+     */
+    public IntBuffer getOffsets() {
+        return offsets.duplicate();
+    }
+
+    /**
+     * Get the targets buffer. Read-only view of the mapping.
+     */
+    public IntBuffer getTargets() {
+        return targets.duplicate();
+    }
+
+    /**
+     * Get the weights buffer. Read-only view of the mapping.
+     */
+    public IntBuffer getWeights() {
+        return weights.duplicate();
+    }
+
+    /**
+     * Copy the mapped arrays onto the heap with bulk reads
+     * @return CompactGraph with the same edges in the same order
+     */
+    public CompactGraph toCompact() {
+        int[] o = new int[n + 1];
+        int[] t = new int[targets.limit()];
+        int[] w = new int[weights.limit()];
+        offsets.duplicate().get(o);
+        targets.duplicate().get(t);
+        weights.duplicate().get(w);
+        return new CompactGraph(n, directed, o, t, w);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("MappedGraph(n=%d, edges=%d, %s)\n",
+                n, edgeCount, directed ? "directed" : "undirected"));
+        for (int u = 0; u < n; u++) {
+            int start = offsets.get(u);
+            int end = offsets.get(u + 1);
+            if (start != end) {
+                sb.append(String.format("  %d: [", u));
+                for (int k = start; k < end; k++) {
+                    if (k > start) {
+                        sb.append(", ");
+                    }
+                    sb.append(String.format("->%d(w=%d)", targets.get(k), weights.get(k)));
+                }
+                sb.append("]\n");
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -1,10 +1,20 @@
 package com.smartcity.common;
 
+import java.util.Map;
+
 /**
  * Common interface for tracking performance metrics across all algorithms.
- * Tracks both operation counts and execution time.
+ * Tracks operation counts, total execution time and nested named phases.
  */
 public interface Metrics {
+    /**
+     * Get a handle to a counter, registering it on first use.
+     * Handles stay valid across reset(); prefer them over increment(name) in loops.
+     * @param name the counter name
+     * @return handle updating the same value as increment(name)
+     */
+    Counter counter(String name);
+
     /**
      * Increment a specific counter by 1
      * @param name the counter name
@@ -47,6 +57,32 @@ public interface Metrics {
      */
     double getElapsedMillis();
 
+    /**
+     * Start a named phase. Phases nest at runtime: a phase started while "topo" is
+     * open is recorded under the path "topo.<name>".
+     * @param name the phase name, without dots
+     */
+    void startPhase(String name);
+
+    /**
+     * End the innermost open phase and add its elapsed time to its path
+     * @param name the phase name, must match the innermost open phase
+     * @throws IllegalStateException if name is not the innermost open phase
+     */
+    void endPhase(String name);
+
+    /**
+     * Get the total time recorded under a phase path
+     * @param path dotted phase path, e.g. "topo.kahn"
+     * @return total nanoseconds, 0 if the phase never ran
+     */
+    long getPhaseNanos(String path);
+
+    /**
+     * Get total nanoseconds per phase path, in the order phases first started
+     */
+    Map<String, Long> getPhases();
+
     /**
      * Reset all metrics
      */
@@ -0,0 +1,63 @@
+package com.smartcity.common;
+
+/**
+ * Available Metrics implementations, selectable at runtime by name
+ * (e.g. -Dmetrics.mode=concurrent). Algorithm constructors accept a factory
+ * so callers choose the instrumentation without touching the algorithms.
+ */
+public enum MetricsFactory {
+    /** Single-threaded slot counters (MetricsImpl) */
+    DEFAULT {
+        @Override
+        public Metrics create() {
+            return new MetricsImpl();
+        }
+    },
+    /** Thread-safe striped counters (ConcurrentMetrics) */
+    CONCURRENT {
+        @Override
+        public Metrics create() {
+            return new ConcurrentMetrics();
+        }
+    },
+    /** No instrumentation (NoOpMetrics) */
+    NO_OP {
+        @Override
+        public Metrics create() {
+            return NoOpMetrics.INSTANCE;
+        }
+    };
+
+    /**
+     * System property used to pick the implementation
+     */
+    public static final String PROPERTY = "metrics.mode";
+
+    /**
+     * Create a metrics instance
+     */
+    public abstract Metrics create();
+
+    /**
+     * Look up a factory by name, case-insensitive; "noop" and "no_op" both work
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static MetricsFactory fromName(String name) {
+        String normalized = name.trim().replace("-", "_");
+        for (MetricsFactory factory : values()) {
+            if (factory.name().equalsIgnoreCase(normalized)
+                    || factory.name().replace("_", "").equalsIgnoreCase(normalized)) {
+                return factory;
+            }
+        }
+        throw new IllegalArgumentException("Unknown metrics mode: " + name);
+    }
+
+    /**
+     * Factory named by the metrics.mode system property, DEFAULT if unset
+     */
+    public static MetricsFactory fromSystemProperty() {
+        String name = System.getProperty(PROPERTY);
+        return name == null ? DEFAULT : fromName(name);
+    }
+}
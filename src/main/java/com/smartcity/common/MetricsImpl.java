@@ -1,22 +1,95 @@
 package com.smartcity.common;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
- * Implementation of the Metrics interface using HashMap for counters.
+ * Implementation of the Metrics interface.
+ * Each counter name is registered once in a HashMap and gets a slot in a long[];
+ * Counter handles update their slot directly without any lookup or boxing.
+ * Phases are kept on a stack of open paths; totals are summed per dotted path.
+ * Child paths are built once per (parent, name) and totals live in long[] cells,
+ * so starting and ending a known phase allocates nothing.
  */
 public class MetricsImpl implements Metrics {
-    private final Map<String, Long> counters;
+    private final Map<String, Integer> slots;
+    private String[] names;
+    private long[] values;
+    private int size;
     private long startTime;
     private long endTime;
+    private final Map<String, long[]> phases; // Path -> {total nanos}, in first-start order
+    private final Map<String, Map<String, String>> childPaths; // Parent -> name -> path; kept across reset
+    private String[] openPaths;
+    private long[][] openTotals;
+    private long[] openStarts;
+    private int openCount;
 
     public MetricsImpl() {
-        this.counters = new HashMap<>();
+        this.slots = new HashMap<>();
+        this.names = new String[8];
+        this.values = new long[8];
+        this.phases = new LinkedHashMap<>();
+        this.childPaths = new HashMap<>();
+        this.openPaths = new String[8];
+        this.openTotals = new long[8][];
+        this.openStarts = new long[8];
         this.startTime = 0;
         this.endTime = 0;
     }
 
+    /**
+     * Counter bound to one slot of this instance
+     */
+    private final class SlotCounter implements Counter {
+        private final int slot;
+
+        SlotCounter(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public void increment() {
+            values[slot]++;
+        }
+
+        @Override
+        public void add(long amount) {
+            values[slot] += amount;
+        }
+
+        @Override
+        public long get() {
+            return values[slot];
+        }
+    }
+
+    /**
+     * Get the slot of a counter, registering it if needed
+     */
+    private int slot(String name) {
+        Integer slot = slots.get(name);
+        if (slot != null) {
+            return slot;
+        }
+        if (size == values.length) {
+            names = Arrays.copyOf(names, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        names[size] = name;
+        slots.put(name, size);
+        return size++;
+    }
+
+    @Override
+    public Counter counter(String name) {
+        return new SlotCounter(slot(name));
+    }
+
     @Override
     public void increment(String name) {
         increment(name, 1);
@@ -24,12 +97,13 @@ public class MetricsImpl implements Metrics {
 
     @Override
     public void increment(String name, int amount) {
-        counters.put(name, counters.getOrDefault(name, 0L) + amount);
+        values[slot(name)] += amount;
     }
 
     @Override
     public long getCount(String name) {
-        return counters.getOrDefault(name, 0L);
+        Integer slot = slots.get(name);
+        return slot == null ? 0 : values[slot];
     }
 
     @Override
@@ -52,20 +126,131 @@ public class MetricsImpl implements Metrics {
         return getElapsedNanos() / 1_000_000.0;
     }
 
+    @Override
+    public void startPhase(String name) {
+        if (openCount == openPaths.length) {
+            openPaths = Arrays.copyOf(openPaths, openCount * 2);
+            openTotals = Arrays.copyOf(openTotals, openCount * 2);
+            openStarts = Arrays.copyOf(openStarts, openCount * 2);
+        }
+        String path = openCount == 0 ? name : childPath(openPaths[openCount - 1], name);
+        long[] total = phases.get(path);
+        if (total == null) {
+            total = new long[1];
+            phases.put(path, total);
+        }
+        openPaths[openCount] = path;
+        openTotals[openCount] = total;
+        openStarts[openCount] = System.nanoTime();
+        openCount++;
+    }
+
+    @Override
+    public void endPhase(String name) {
+        long now = System.nanoTime();
+        String path = openCount == 0 ? null : openPaths[openCount - 1];
+        if (path == null || !isLeaf(path, name)) {
+            throw new IllegalStateException("Phase " + name + " is not the innermost open phase (" + path + ")");
+        }
+        openCount--;
+        openTotals[openCount][0] += now - openStarts[openCount];
+        openPaths[openCount] = null;
+        openTotals[openCount] = null;
+    }
+
+    /**
+     * Path of phase name under parent, concatenated only the first time
+     */
+    private String childPath(String parent, String name) {
+        Map<String, String> children = childPaths.get(parent);
+        if (children == null) {
+            children = new HashMap<>();
+            childPaths.put(parent, children);
+        }
+        String path = children.get(name);
+        if (path == null) {
+            path = parent + "." + name;
+            children.put(name, path);
+        }
+        return path;
+    }
+
+    /**
+     * True if name is the last segment of path, checked without building strings.
+     * Shared with ConcurrentMetrics.
+     */
+    static boolean isLeaf(String path, String name) {
+        int start = path.length() - name.length();
+        return start >= 0 && path.regionMatches(start, name, 0, name.length())
+                && (start == 0 || path.charAt(start - 1) == '.');
+    }
+
+    @Override
+    public long getPhaseNanos(String path) {
+        long[] total = phases.get(path);
+        return total == null ? 0 : total[0];
+    }
+
+    @Override
+    public Map<String, Long> getPhases() {
+        Map<String, Long> copy = new LinkedHashMap<>();
+        phases.forEach((path, total) -> copy.put(path, total[0]));
+        return copy;
+    }
+
+    /**
+     * Reset all values and phases; registered counters and their handles stay valid
+     */
     @Override
     public void reset() {
-        counters.clear();
+        Arrays.fill(values, 0, size, 0);
         startTime = 0;
         endTime = 0;
+        phases.clear();
+        Arrays.fill(openPaths, 0, openCount, null);
+        Arrays.fill(openTotals, 0, openCount, null);
+        openCount = 0;
     }
 
+    /**
+     * Print the elapsed time, every non-zero counter sorted by name and the phase tree
+     */
     @Override
     public void printSummary() {
         System.out.println("=== Metrics Summary ===");
         System.out.printf("Execution time: %.3f ms%n", getElapsedMillis());
         System.out.println("Operation counts:");
-        counters.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .forEach(e -> System.out.printf("  %s: %d%n", e.getKey(), e.getValue()));
+        String[] sorted = Arrays.copyOf(names, size);
+        Arrays.sort(sorted);
+        for (String name : sorted) {
+            long value = values[slots.get(name)];
+            if (value != 0) {
+                System.out.printf("  %s: %d%n", name, value);
+            }
+        }
+        if (!phases.isEmpty()) {
+            System.out.println("Phases:");
+            printPhases(getPhases(), null, 1);
+        }
+    }
+
+    /**
+     * Print the children of parent (or the roots when parent is null) in start order.
+     * Shared with ConcurrentMetrics.
+     */
+    static void printPhases(Map<String, Long> phases, String parent, int depth) {
+        List<String> children = new ArrayList<>();
+        for (String path : phases.keySet()) {
+            int dot = path.lastIndexOf('.');
+            String pathParent = dot < 0 ? null : path.substring(0, dot);
+            if (parent == null ? pathParent == null : parent.equals(pathParent)) {
+                children.add(path);
+            }
+        }
+        for (String path : children) {
+            System.out.printf("%s%s: %.3f ms%n", "  ".repeat(depth),
+                    path.substring(path.lastIndexOf('.') + 1), phases.get(path) / 1_000_000.0);
+            printPhases(phases, path, depth + 1);
+        }
     }
-}
\ No newline at end of file
+}
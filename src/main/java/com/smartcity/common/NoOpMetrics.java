@@ -0,0 +1,101 @@
+package com.smartcity.common;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Metrics that record nothing.
+ * All methods are empty, so once inlined the JIT removes the instrumentation.
+ * Counts and times always read as 0.
+ */
+public final class NoOpMetrics implements Metrics {
+    /** Shared instance; the class has no state */
+    public static final NoOpMetrics INSTANCE = new NoOpMetrics();
+
+    private static final Counter COUNTER = new NoOpCounter();
+
+    private NoOpMetrics() {
+    }
+
+    /**
+     * Counter that ignores updates
+     */
+    private static final class NoOpCounter implements Counter {
+        @Override
+        public void increment() {
+        }
+
+        @Override
+        public void add(long amount) {
+        }
+
+        @Override
+        public long get() {
+            return 0;
+        }
+    }
+
+    @Override
+    public Counter counter(String name) {
+        return COUNTER;
+    }
+
+    @Override
+    public void increment(String name) {
+    }
+
+    @Override
+    public void increment(String name, int amount) {
+    }
+
+    @Override
+    public long getCount(String name) {
+        return 0;
+    }
+
+    @Override
+    public void startTimer() {
+    }
+
+    @Override
+    public void stopTimer() {
+    }
+
+    @Override
+    public long getElapsedNanos() {
+        return 0;
+    }
+
+    @Override
+    public double getElapsedMillis() {
+        return 0;
+    }
+
+    @Override
+    public void startPhase(String name) {
+    }
+
+    @Override
+    public void endPhase(String name) {
+    }
+
+    @Override
+    public long getPhaseNanos(String path) {
+        return 0;
+    }
+
+    @Override
+    public Map<String, Long> getPhases() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public void reset() {
+    }
+
+    @Override
+    public void printSummary() {
+        System.out.println("=== Metrics Summary ===");
+        System.out.println("Metrics disabled");
+    }
+}
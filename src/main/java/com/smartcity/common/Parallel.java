@@ -0,0 +1,75 @@
+package com.smartcity.common;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Small fork/join helper for splitting index ranges across a pool.
+ */
+public final class Parallel {
+
+    /**
+     * Work on a half-open index range [from, to)
+     */
+    @FunctionalInterface
+    public interface RangeBody {
+        void run(int from, int to);
+    }
+
+    private Parallel() {
+    }
+
+    /**
+     * Run body over [from, to) split into chunks of at most grain indices.
+     * Ranges no larger than grain run inline on the calling thread.
+     * @param pool the pool executing the chunks
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @param grain maximum chunk size
+     * @param body work for one chunk
+     */
+    public static void forRange(ForkJoinPool pool, int from, int to, int grain, RangeBody body) {
+        if (to - from <= grain) {
+            if (from < to) {
+                body.run(from, to);
+            }
+            return;
+        }
+        RangeTask task = new RangeTask(from, to, Math.max(1, grain), body);
+        if (ForkJoinTask.getPool() == pool) {
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    /**
+     * Recursive halving of an index range
+     */
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final RangeBody body;
+
+        RangeTask(int from, int to, int grain, RangeBody body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                body.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, grain, body), new RangeTask(mid, to, grain, body));
+        }
+    }
+}
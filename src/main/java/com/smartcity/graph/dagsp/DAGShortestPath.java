@@ -1,19 +1,28 @@
 package com.smartcity.graph.dagsp;
 
-import com.smartcity.common.Graph;
+import com.smartcity.common.Counter;
+import com.smartcity.common.GraphView;
 import com.smartcity.common.Metrics;
-import com.smartcity.common.MetricsImpl;
-import com.smartcity.graph.topo.TopologicalSort;
+import com.smartcity.common.MetricsFactory;
+import com.smartcity.common.Parallel;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Shortest and longest path algorithms for DAGs.
  * Uses topological ordering for O(V+E) time complexity.
+ * The order is held in a DagPlan computed once per solver, so each query is a single relaxation sweep.
  */
 public class DAGShortestPath {
-    private final Graph graph;
+    private static final int BATCH_WORK_GRAIN = 1 << 16; // Approximate vertex+edge work per batch task
+
+    private final GraphView graph;
     private final Metrics metrics;
+    private final Counter relaxations;
+    private final Counter updates;
+    private DagPlan plan;
 
     /**
      * Result of shortest/longest path computation
@@ -51,15 +60,123 @@ public class DAGShortestPath {
     }
 
     /**
-     * Create DAG shortest path solver
-     * @param graph the directed acyclic graph
+     * Distances from several sources in one flat row-major matrix:
+     * the distance from sources[row] to v is dist[row * n + v].
+     * Unreachable entries hold Integer.MAX_VALUE (shortest) or Integer.MIN_VALUE (longest).
+     */
+    public static class DistanceMatrix {
+        public final int[] sources;
+        public final int n;
+        public final int[] dist;
+
+        public DistanceMatrix(int[] sources, int n, int[] dist) {
+            this.sources = sources;
+            this.n = n;
+            this.dist = dist;
+        }
+
+        /**
+         * Distance from sources[row] to vertex v
+         */
+        public int get(int row, int v) {
+            return dist[row * n + v];
+        }
+    }
+
+    /**
+     * Create DAG shortest path solver.
+     * The query plan (topological order) is computed on the first query and reused
+     * until the graph version changes.
+     * @param graph the directed acyclic graph (any backend, e.g. Graph or CompactGraph)
+     */
+    public DAGShortestPath(GraphView graph) {
+        this(graph, MetricsFactory.fromSystemProperty());
+    }
+
+    /**
+     * Create DAG shortest path solver with metrics from the given factory
+     * @param graph the directed acyclic graph (any backend, e.g. Graph or CompactGraph)
+     * @param metricsFactory creates the metrics instance, e.g. MetricsFactory.CONCURRENT
+     */
+    public DAGShortestPath(GraphView graph, MetricsFactory metricsFactory) {
+        this(graph, metricsFactory.create());
+    }
+
+    /**
+     * Create DAG shortest path solver recording into the given metrics
+     * @param graph the directed acyclic graph (any backend, e.g. Graph or CompactGraph)
+     * @param metrics where counters and time are recorded, e.g. NoOpMetrics.INSTANCE
      */
-    public DAGShortestPath(Graph graph) {
+    public DAGShortestPath(GraphView graph, Metrics metrics) {
         if (!graph.isDirected()) {
             throw new IllegalArgumentException("Graph must be directed");
         }
         this.graph = graph;
-        this.metrics = new MetricsImpl();
+        this.metrics = metrics;
+        this.relaxations = metrics.counter("relaxations");
+        this.updates = metrics.counter("updates");
+    }
+
+    /**
+     * Create DAG shortest path solver sharing a precomputed plan
+     * @param plan query plan of the graph to solve on
+     */
+    public DAGShortestPath(DagPlan plan) {
+        this(plan, MetricsFactory.fromSystemProperty().create());
+    }
+
+    /**
+     * Create DAG shortest path solver sharing a precomputed plan
+     * @param plan query plan of the graph to solve on
+     * @param metrics where counters and time are recorded
+     */
+    public DAGShortestPath(DagPlan plan, Metrics metrics) {
+        this(plan.getGraph(), metrics);
+        this.plan = plan;
+    }
+
+    /**
+     * Get the graph this solver runs on
+     */
+    public GraphView getGraph() {
+        return graph;
+    }
+
+    /**
+     * Get the query plan, computing it on first use or after the graph was modified
+     * @throws IllegalStateException if the graph contains a cycle
+     */
+    public DagPlan getPlan() {
+        if (plan == null || !plan.isCurrent()) {
+            metrics.startPhase("plan");
+            try {
+                plan = new DagPlan(graph);
+            } finally {
+                metrics.endPhase("plan");
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Get the plan inside the open "dagsp" phase, closing the phase if the graph has a cycle
+     */
+    private DagPlan planInPhase() {
+        try {
+            return getPlan();
+        } catch (IllegalStateException e) {
+            metrics.endPhase("dagsp");
+            metrics.stopTimer();
+            throw e;
+        }
+    }
+
+    /**
+     * Index in the topological order where a sweep from source can start.
+     * Vertices before the source cannot be reached from it.
+     */
+    private int startIndex(DagPlan plan, int source) {
+        return plan.hasPositions() ? plan.positionOf(source) : 0;
     }
 
     /**
@@ -70,13 +187,11 @@ public class DAGShortestPath {
     public PathResult shortestPaths(int source) {
         int n = graph.getN();
 
-        // Get topological order
-        TopologicalSort topoSort = new TopologicalSort(graph);
-        List<Integer> topoOrder = topoSort.sort();
-
-        if (topoOrder == null) {
-            throw new IllegalStateException("Graph contains a cycle");
-        }
+        metrics.startTimer();
+        metrics.startPhase("dagsp");
+        DagPlan plan = planInPhase();
+        int[] topoOrder = plan.getOrder();
+        metrics.startPhase("relax");
 
         // Initialize distances and parents
         int[] dist = new int[n];
@@ -85,28 +200,31 @@ public class DAGShortestPath {
         Arrays.fill(parent, -1);
         dist[source] = 0;
 
-        metrics.startTimer();
-
-        // Process vertices in topological order
-        for (int u : topoOrder) {
+        // Process vertices in topological order, starting at the source
+        for (int k = startIndex(plan, source); k < topoOrder.length; k++) {
+            int u = topoOrder[k];
             if (dist[u] != Integer.MAX_VALUE) {
-                for (Graph.Edge e : graph.getNeighbors(u)) {
-                    int v = e.to;
-                    metrics.increment("relaxations");
+                int deg = graph.degree(u);
+                relaxations.add(deg);
+                for (int i = 0; i < deg; i++) {
+                    int v = graph.target(u, i);
+                    int w = graph.weight(u, i);
 
                     // Relaxation
-                    if (dist[u] + e.weight < dist[v]) {
-                        dist[v] = dist[u] + e.weight;
+                    if (dist[u] + w < dist[v]) {
+                        dist[v] = dist[u] + w;
                         parent[v] = u;
-                        metrics.increment("updates");
+                        updates.increment();
                     }
                 }
             }
         }
 
+        metrics.endPhase("relax");
+        metrics.endPhase("dagsp");
         metrics.stopTimer();
 
-        return new PathResult(dist, parent, topoOrder);
+        return new PathResult(dist, parent, plan.getOrderList());
     }
 
     /**
@@ -118,13 +236,11 @@ public class DAGShortestPath {
     public PathResult longestPaths(int source) {
         int n = graph.getN();
 
-        // Get topological order
-        TopologicalSort topoSort = new TopologicalSort(graph);
-        List<Integer> topoOrder = topoSort.sort();
-
-        if (topoOrder == null) {
-            throw new IllegalStateException("Graph contains a cycle");
-        }
+        metrics.startTimer();
+        metrics.startPhase("dagsp");
+        DagPlan plan = planInPhase();
+        int[] topoOrder = plan.getOrder();
+        metrics.startPhase("relax");
 
         // Initialize distances and parents
         int[] dist = new int[n];
@@ -133,28 +249,144 @@ public class DAGShortestPath {
         Arrays.fill(parent, -1);
         dist[source] = 0;
 
-        metrics.startTimer();
-
-        // Process vertices in topological order
-        for (int u : topoOrder) {
+        // Process vertices in topological order, starting at the source
+        for (int k = startIndex(plan, source); k < topoOrder.length; k++) {
+            int u = topoOrder[k];
             if (dist[u] != Integer.MIN_VALUE) {
-                for (Graph.Edge e : graph.getNeighbors(u)) {
-                    int v = e.to;
-                    metrics.increment("relaxations");
+                int deg = graph.degree(u);
+                relaxations.add(deg);
+                for (int i = 0; i < deg; i++) {
+                    int v = graph.target(u, i);
+                    int w = graph.weight(u, i);
 
                     // Relaxation for longest path (use max instead of min)
-                    if (dist[u] + e.weight > dist[v]) {
-                        dist[v] = dist[u] + e.weight;
+                    if (dist[u] + w > dist[v]) {
+                        dist[v] = dist[u] + w;
                         parent[v] = u;
-                        metrics.increment("updates");
+                        updates.increment();
                     }
                 }
             }
         }
 
+        metrics.endPhase("relax");
+        metrics.endPhase("dagsp");
         metrics.stopTimer();
 
-        return new PathResult(dist, parent, topoOrder);
+        return new PathResult(dist, parent, plan.getOrderList());
+    }
+
+    /**
+     * Compute shortest distances from every source, in parallel on the common pool
+     * @param sources source vertices, one matrix row each
+     * @return row-major distance matrix
+     */
+    public DistanceMatrix batchShortestPaths(int[] sources) {
+        return batch(sources, false, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compute shortest distances from every source, in parallel
+     * @param sources source vertices, one matrix row each
+     * @param pool the pool running the per-source sweeps
+     * @return row-major distance matrix
+     */
+    public DistanceMatrix batchShortestPaths(int[] sources, ForkJoinPool pool) {
+        return batch(sources, false, pool);
+    }
+
+    /**
+     * Compute longest distances from every source, in parallel on the common pool
+     * @param sources source vertices, one matrix row each
+     * @return row-major distance matrix
+     */
+    public DistanceMatrix batchLongestPaths(int[] sources) {
+        return batch(sources, true, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compute longest distances from every source, in parallel
+     * @param sources source vertices, one matrix row each
+     * @param pool the pool running the per-source sweeps
+     * @return row-major distance matrix
+     */
+    public DistanceMatrix batchLongestPaths(int[] sources, ForkJoinPool pool) {
+        return batch(sources, true, pool);
+    }
+
+    /**
+     * Run one relaxation sweep per source over the shared plan. Rows are
+     * independent slices of one matrix, so tasks never write the same entry.
+     */
+    private DistanceMatrix batch(int[] sources, boolean longest, ForkJoinPool pool) {
+        int n = graph.getN();
+        long cells = (long) sources.length * n;
+        if (cells > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Distance matrix too large: " + sources.length + " x " + n);
+        }
+
+        metrics.startTimer();
+        metrics.startPhase("dagsp");
+        DagPlan plan = planInPhase();
+        metrics.startPhase("batch");
+
+        int[] dist = new int[(int) cells];
+        AtomicLong relaxed = new AtomicLong();
+        AtomicLong updated = new AtomicLong();
+        long rowWork = (long) n + graph.getEdgeCount();
+        int grain = (int) Math.max(1, BATCH_WORK_GRAIN / Math.max(1, rowWork));
+
+        Parallel.forRange(pool, 0, sources.length, grain, (from, to) -> {
+            long[] counts = new long[2];
+            for (int row = from; row < to; row++) {
+                sweepRow(plan, sources[row], dist, row * n, longest, counts);
+            }
+            relaxed.addAndGet(counts[0]);
+            updated.addAndGet(counts[1]);
+        });
+
+        metrics.endPhase("batch");
+        metrics.endPhase("dagsp");
+        metrics.stopTimer();
+
+        relaxations.add(relaxed.get());
+        updates.add(updated.get());
+        metrics.counter("batch_sources").add(sources.length);
+
+        return new DistanceMatrix(sources.clone(), n, dist);
+    }
+
+    /**
+     * Relax all edges reachable from source into dist[base .. base + n - 1]
+     * @param counts accumulates {relaxations, updates}
+     */
+    private void sweepRow(DagPlan plan, int source, int[] dist, int base, boolean longest, long[] counts) {
+        int[] topoOrder = plan.getOrder();
+        int unreached = longest ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        Arrays.fill(dist, base, base + graph.getN(), unreached);
+        dist[base + source] = 0;
+
+        long relaxations = 0;
+        long updates = 0;
+        for (int k = startIndex(plan, source); k < topoOrder.length; k++) {
+            int u = topoOrder[k];
+            int du = dist[base + u];
+            if (du == unreached) {
+                continue;
+            }
+            int deg = graph.degree(u);
+            relaxations += deg;
+            for (int i = 0; i < deg; i++) {
+                int slot = base + graph.target(u, i);
+                int candidate = du + graph.weight(u, i);
+                if (longest ? candidate > dist[slot] : candidate < dist[slot]) {
+                    dist[slot] = candidate;
+                    updates++;
+                }
+            }
+        }
+        counts[0] += relaxations;
+        counts[1] += updates;
     }
 
     /**
@@ -0,0 +1,121 @@
+package com.smartcity.graph.dagsp;
+
+import com.smartcity.common.CompactGraph;
+import com.smartcity.common.GraphView;
+import com.smartcity.common.IntListView;
+import com.smartcity.graph.topo.TopologicalSort;
+
+import java.util.List;
+
+/**
+ * Precomputed query plan for path queries on one DAG.
+ * Holds the topological order and, optionally, the position of every vertex in
+ * that order and the reverse graph in CSR form. Build it once and share it across
+ * any number of source queries; it must be rebuilt if the graph changes (see isCurrent).
+ */
+public final class DagPlan {
+    private final GraphView graph;
+    private final int[] order;
+    private final int[] position;
+    private final CompactGraph reverse;
+    private final long version;
+
+    /**
+     * Plan with topological order and position index
+     * @param graph the directed acyclic graph
+     * @throws IllegalStateException if the graph contains a cycle
+     */
+    public DagPlan(GraphView graph) {
+        this(graph, true, false);
+    }
+
+    /**
+     * Plan with optional position index and reverse graph
+     * @param graph the directed acyclic graph
+     * @param withPositions compute position[v] = index of v in the order
+     * @param withReverse build the reverse graph in CSR form
+     * @throws IllegalStateException if the graph contains a cycle
+     */
+    public DagPlan(GraphView graph, boolean withPositions, boolean withReverse) {
+        if (!graph.isDirected()) {
+            throw new IllegalArgumentException("Graph must be directed");
+        }
+        this.graph = graph;
+        this.version = graph.getVersion();
+        this.order = new TopologicalSort(graph).sortToArray();
+
+        if (order == null) {
+            throw new IllegalStateException("Graph contains a cycle");
+        }
+
+        if (withPositions) {
+            position = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                position[order[i]] = i;
+            }
+        } else {
+            position = null;
+        }
+        reverse = withReverse ? CompactGraph.fromGraph(graph).getReverse() : null;
+    }
+
+    /**
+     * Get the graph this plan was computed for
+     */
+    public GraphView getGraph() {
+        return graph;
+    }
+
+    /**
+     * Get the graph version this plan was computed for
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Check if the graph is unchanged since this plan was computed
+     */
+    public boolean isCurrent() {
+        return graph.getVersion() == version;
+    }
+
+    /**
+     * Get the topological order. Shared, must not be modified.
+     */
+    public int[] getOrder() {
+        return order;
+    }
+
+    /**
+     * Get the topological order as a read-only list view
+     */
+    public List<Integer> getOrderList() {
+        return IntListView.of(order);
+    }
+
+    /**
+     * Check if the position index was computed
+     */
+    public boolean hasPositions() {
+        return position != null;
+    }
+
+    /**
+     * Get the index of vertex v in the topological order
+     * @throws IllegalStateException if the plan was built without positions
+     */
+    public int positionOf(int v) {
+        if (position == null) {
+            throw new IllegalStateException("Plan was built without positions");
+        }
+        return position[v];
+    }
+
+    /**
+     * Get the reverse graph, or null if the plan was built without it
+     */
+    public CompactGraph getReverse() {
+        return reverse;
+    }
+}
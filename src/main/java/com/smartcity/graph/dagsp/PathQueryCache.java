@@ -0,0 +1,187 @@
+package com.smartcity.graph.dagsp;
+
+import com.smartcity.common.Counter;
+import com.smartcity.common.GraphView;
+import com.smartcity.common.Metrics;
+import com.smartcity.common.MetricsFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Memory-bounded LRU cache of path query results in front of a DAGShortestPath.
+ * Entries are keyed by (graph version, source, mode) and charged by the size of
+ * their dist and parent arrays; least recently used entries are evicted once the
+ * byte budget is exceeded. When the graph version changes (e.g. Graph.addEdge)
+ * all entries are dropped on the next query.
+ * Cached results are shared between callers and must not be modified.
+ */
+public class PathQueryCache {
+    private static final long ENTRY_OVERHEAD_BYTES = 96; // Key, map entry, result and array headers
+
+    private final DAGShortestPath solver;
+    private final GraphView graph;
+    private final long maxBytes;
+    private final Metrics metrics;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter invalidations;
+    private final LinkedHashMap<Key, DAGShortestPath.PathResult> entries;
+    private long usedBytes;
+    private long version;
+
+    /**
+     * Cache key: graph version, source vertex and query mode
+     */
+    private static final class Key {
+        final long version;
+        final int source;
+        final boolean longest;
+
+        Key(long version, int source, boolean longest) {
+            this.version = version;
+            this.source = source;
+            this.longest = longest;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return version == other.version && source == other.source && longest == other.longest;
+        }
+
+        @Override
+        public int hashCode() {
+            return (Long.hashCode(version) * 31 + source) * 2 + (longest ? 1 : 0);
+        }
+    }
+
+    /**
+     * Create a cache over a solver
+     * @param solver the solver computing results on a miss
+     * @param maxBytes memory budget for cached dist and parent arrays
+     */
+    public PathQueryCache(DAGShortestPath solver, long maxBytes) {
+        this(solver, maxBytes, MetricsFactory.fromSystemProperty());
+    }
+
+    /**
+     * Create a cache over a solver with metrics from the given factory
+     * @param solver the solver computing results on a miss
+     * @param maxBytes memory budget for cached dist and parent arrays
+     * @param metricsFactory creates the metrics instance, e.g. MetricsFactory.NO_OP
+     */
+    public PathQueryCache(DAGShortestPath solver, long maxBytes, MetricsFactory metricsFactory) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+        }
+        this.solver = solver;
+        this.graph = solver.getGraph();
+        this.maxBytes = maxBytes;
+        this.metrics = metricsFactory.create();
+        this.hits = metrics.counter("cache_hits");
+        this.misses = metrics.counter("cache_misses");
+        this.evictions = metrics.counter("cache_evictions");
+        this.invalidations = metrics.counter("cache_invalidations");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.version = graph.getVersion();
+    }
+
+    /**
+     * Get shortest paths from source, computing them on a miss
+     */
+    public synchronized DAGShortestPath.PathResult shortestPaths(int source) {
+        return query(source, false);
+    }
+
+    /**
+     * Get longest paths from source, computing them on a miss
+     */
+    public synchronized DAGShortestPath.PathResult longestPaths(int source) {
+        return query(source, true);
+    }
+
+    private DAGShortestPath.PathResult query(int source, boolean longest) {
+        long current = graph.getVersion();
+        if (current != version) {
+            invalidations.increment();
+            entries.clear();
+            usedBytes = 0;
+            version = current;
+        }
+
+        Key key = new Key(current, source, longest);
+        DAGShortestPath.PathResult result = entries.get(key);
+        if (result != null) {
+            hits.increment();
+            return result;
+        }
+
+        misses.increment();
+        result = longest ? solver.longestPaths(source) : solver.shortestPaths(source);
+
+        long bytes = sizeOf(result);
+        if (bytes <= maxBytes) {
+            entries.put(key, result);
+            usedBytes += bytes;
+            evict();
+        }
+        return result;
+    }
+
+    /**
+     * Drop least recently used entries until the budget is met
+     */
+    private void evict() {
+        Iterator<DAGShortestPath.PathResult> it = entries.values().iterator();
+        while (usedBytes > maxBytes && it.hasNext()) {
+            usedBytes -= sizeOf(it.next());
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private static long sizeOf(DAGShortestPath.PathResult result) {
+        return 4L * result.dist.length + 4L * result.parent.length + ENTRY_OVERHEAD_BYTES;
+    }
+
+    /**
+     * Drop all entries
+     */
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    /**
+     * Get number of cached results
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the estimated bytes held by cached results
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Get the memory budget in bytes
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Get hit/miss/eviction/invalidation counters
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+}
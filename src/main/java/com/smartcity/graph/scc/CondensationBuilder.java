@@ -0,0 +1,181 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.Graph;
+import com.smartcity.common.GraphView;
+
+import java.util.Arrays;
+
+/**
+ * Builds the condensation graph (DAG of SCCs) from a vertex-to-component mapping.
+ * Shared by all SCC algorithms.
+ * Inter-component edges are deduplicated with an open-addressing table keyed by
+ * the packed (sccU, sccV) pair, so no per-edge objects are allocated.
+ */
+public final class CondensationBuilder {
+
+    /**
+     * How the weights of parallel edges between two SCCs are combined
+     */
+    public enum WeightPolicy {
+        /** Keep the weight of the first edge seen (in vertex/edge order) */
+        FIRST,
+        /** Keep the smallest weight */
+        MIN,
+        /** Keep the largest weight */
+        MAX,
+        /** Add all weights; throws ArithmeticException on int overflow */
+        SUM
+    }
+
+    private CondensationBuilder() {
+    }
+
+    /**
+     * Build the condensation graph keeping the first-seen edge weight
+     * @param graph the original graph
+     * @param vertexToSCC component index of every vertex
+     * @param numSCCs number of components
+     * @return condensation graph where each node is an SCC
+     */
+    public static Graph build(GraphView graph, int[] vertexToSCC, int numSCCs) {
+        return build(graph, vertexToSCC, numSCCs, WeightPolicy.FIRST);
+    }
+
+    /**
+     * Build the condensation graph from an SCC result
+     * @param graph the original graph
+     * @param sccs components of the graph
+     * @param policy how to combine weights of edges between the same pair of SCCs
+     * @return condensation graph where each node is an SCC
+     */
+    public static Graph build(GraphView graph, SccResult sccs, WeightPolicy policy) {
+        return build(graph, sccs.getComponentOf(), sccs.getComponentCount(), policy);
+    }
+
+    /**
+     * Build the condensation graph
+     * @param graph the original graph
+     * @param vertexToSCC component index of every vertex
+     * @param numSCCs number of components
+     * @param policy how to combine weights of edges between the same pair of SCCs
+     * @return condensation graph where each node is an SCC; edges appear in first-seen order
+     */
+    public static Graph build(GraphView graph, int[] vertexToSCC, int numSCCs, WeightPolicy policy) {
+        PairIndex index = new PairIndex();
+
+        for (int u = 0; u < graph.getN(); u++) {
+            int sccU = vertexToSCC[u];
+
+            int deg = graph.degree(u);
+            for (int i = 0; i < deg; i++) {
+                int sccV = vertexToSCC[graph.target(u, i)];
+
+                // Add edge between different SCCs
+                if (sccU != sccV) {
+                    index.add(sccU, sccV, graph.weight(u, i), policy);
+                }
+            }
+        }
+
+        Graph condensation = new Graph(numSCCs, true);
+        for (int k = 0; k < index.size; k++) {
+            condensation.addEdge(index.from[k], index.to[k], index.weight[k]);
+        }
+        return condensation;
+    }
+
+    /**
+     * Open-addressing hash table from packed (u, v) keys to distinct edge slots.
+     * Keys are (u << 32 | v) with non-negative u and v, so -1 marks an empty bucket.
+     */
+    private static final class PairIndex {
+        private static final long EMPTY = -1L;
+
+        private long[] keys = newKeys(16);
+        private int[] slots = new int[16];
+        private int mask = 15;
+
+        int[] from = new int[16];
+        int[] to = new int[16];
+        int[] weight = new int[16];
+        int size;
+
+        void add(int u, int v, int w, WeightPolicy policy) {
+            long key = ((long) u << 32) | (v & 0xFFFFFFFFL);
+            int bucket = mix(key) & mask;
+            while (keys[bucket] != EMPTY) {
+                if (keys[bucket] == key) {
+                    int k = slots[bucket];
+                    switch (policy) {
+                        case MIN:
+                            weight[k] = Math.min(weight[k], w);
+                            break;
+                        case MAX:
+                            weight[k] = Math.max(weight[k], w);
+                            break;
+                        case SUM:
+                            weight[k] = Math.addExact(weight[k], w);
+                            break;
+                        default:
+                            break;
+                    }
+                    return;
+                }
+                bucket = (bucket + 1) & mask;
+            }
+
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                weight = Arrays.copyOf(weight, size * 2);
+            }
+            keys[bucket] = key;
+            slots[bucket] = size;
+            from[size] = u;
+            to[size] = v;
+            weight[size] = w;
+            size++;
+
+            // Keep load factor at or below 1/2
+            if (size * 2 > mask + 1) {
+                rehash((mask + 1) * 2);
+            }
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldSlots = slots;
+            keys = newKeys(capacity);
+            slots = new int[capacity];
+            mask = capacity - 1;
+            for (int b = 0; b < oldKeys.length; b++) {
+                if (oldKeys[b] != EMPTY) {
+                    int bucket = mix(oldKeys[b]) & mask;
+                    while (keys[bucket] != EMPTY) {
+                        bucket = (bucket + 1) & mask;
+                    }
+                    keys[bucket] = oldKeys[b];
+                    slots[bucket] = oldSlots[b];
+                }
+            }
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        /**
+         * 64-bit finalizer (from MurmurHash3) folded to an int bucket hash
+         */
+        private static int mix(long key) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            key *= 0xc4ceb9fe1a85ec53L;
+            key ^= key >>> 33;
+            return (int) key;
+        }
+    }
+}
@@ -0,0 +1,500 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.CompactGraph;
+import com.smartcity.common.Counter;
+import com.smartcity.common.Graph;
+import com.smartcity.common.GraphView;
+import com.smartcity.common.Metrics;
+import com.smartcity.common.MetricsFactory;
+import com.smartcity.common.Parallel;
+
+import java.util.*;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parallel SCC decomposition using the forward-backward (FB) method with trimming.
+ * Vertices without remaining in- or out-edges are first trimmed in parallel as
+ * singleton SCCs. For the rest, the SCC of a pivot is the intersection of its
+ * forward and backward reachable sets; the three leftover sets cannot share an
+ * SCC and are processed independently as fork/join tasks.
+ * Components are numbered by their smallest vertex, so results are deterministic.
+ */
+public class ParallelSCC implements SCCFinder {
+    private static final int TRIM_GRAIN = 1024;     // Vertices per parallel trim chunk
+    private static final int FORK_THRESHOLD = 2048; // Smaller partitions stay on the current task
+
+    private final GraphView graph;
+    private final ForkJoinPool pool;
+    private final Metrics metrics;
+    private final Counter trimmedCount;
+    private final Counter pivotCount;
+    private final Counter edgesExploredCount;
+    private final Counter sccsFound;
+
+    private CompactGraph forward;
+    private CompactGraph backward;
+    private int[] componentOf;
+    private int[] color;     // Partition stamp of each active vertex, 0 once assigned
+    private int[] fwMark;    // Stamp of the forward search that reached the vertex
+    private int[] bwMark;    // Stamp of the backward search that reached the vertex
+    private int[] inDegree;  // In-degree within the vertex's partition
+    private int[] outDegree; // Out-degree within the vertex's partition
+    private AtomicInteger nextComponent;
+    private AtomicInteger nextStamp;
+    private LongAdder edgesExplored;
+    private LongAdder pivots;
+    private LongAdder trimmed;
+    private SccResult result;
+
+    /**
+     * Create parallel SCC finder on the common fork/join pool
+     * @param graph the directed graph
+     */
+    public ParallelSCC(GraphView graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create parallel SCC finder
+     * @param graph the directed graph
+     * @param pool the pool running trim and FB tasks
+     */
+    public ParallelSCC(GraphView graph, ForkJoinPool pool) {
+        this(graph, pool, MetricsFactory.fromSystemProperty());
+    }
+
+    /**
+     * Create parallel SCC finder with metrics from the given factory
+     * @param graph the directed graph
+     * @param pool the pool running trim and FB tasks
+     * @param metricsFactory creates the metrics instance, e.g. MetricsFactory.CONCURRENT
+     */
+    public ParallelSCC(GraphView graph, ForkJoinPool pool, MetricsFactory metricsFactory) {
+        this(graph, pool, metricsFactory.create());
+    }
+
+    /**
+     * Create parallel SCC finder recording into the given metrics.
+     * Workers count into LongAdders; metrics is only touched by the calling thread.
+     * @param graph the directed graph
+     * @param pool the pool running trim and FB tasks
+     * @param metrics where counters and time are recorded, e.g. NoOpMetrics.INSTANCE
+     */
+    public ParallelSCC(GraphView graph, ForkJoinPool pool, Metrics metrics) {
+        if (!graph.isDirected()) {
+            throw new IllegalArgumentException("Graph must be directed");
+        }
+        this.graph = graph;
+        this.pool = pool;
+        this.metrics = metrics;
+        this.trimmedCount = metrics.counter("trimmed");
+        this.pivotCount = metrics.counter("pivots");
+        this.edgesExploredCount = metrics.counter("edges_explored");
+        this.sccsFound = metrics.counter("sccs_found");
+    }
+
+    /**
+     * Find all strongly connected components in compact form
+     * @return components ordered by smallest vertex, members ascending
+     */
+    @Override
+    public SccResult findComponents() {
+        int n = graph.getN();
+
+        metrics.startTimer();
+        metrics.startPhase("pscc");
+        metrics.startPhase("csr");
+
+        forward = CompactGraph.fromGraph(graph);
+        backward = forward.getReverse();
+        componentOf = new int[n];
+        color = new int[n];
+        fwMark = new int[n];
+        bwMark = new int[n];
+        inDegree = new int[n];
+        outDegree = new int[n];
+        nextComponent = new AtomicInteger();
+        nextStamp = new AtomicInteger();
+        edgesExplored = new LongAdder();
+        pivots = new LongAdder();
+        trimmed = new LongAdder();
+
+        metrics.endPhase("csr");
+        metrics.startPhase("trim");
+        int[] remaining = trim(n);
+        metrics.endPhase("trim");
+
+        metrics.startPhase("fb");
+        if (remaining.length > 0) {
+            int stamp = nextStamp.incrementAndGet();
+            for (int v : remaining) {
+                color[v] = stamp;
+            }
+            pool.invoke(new FBTask(null, remaining));
+        }
+        metrics.endPhase("fb");
+
+        metrics.startPhase("normalize");
+        result = normalize(n);
+        metrics.endPhase("normalize");
+
+        metrics.endPhase("pscc");
+        metrics.stopTimer();
+
+        trimmedCount.add(trimmed.sum());
+        pivotCount.add(pivots.sum());
+        edgesExploredCount.add(edgesExplored.sum());
+        sccsFound.add(result.getComponentCount());
+
+        return result;
+    }
+
+    /**
+     * Repeatedly remove vertices with zero in- or out-degree in parallel, frontier by frontier.
+     * @return vertices that survived trimming
+     */
+    private int[] trim(int n) {
+        AtomicIntegerArray in = new AtomicIntegerArray(n);
+        AtomicIntegerArray out = new AtomicIntegerArray(n);
+        AtomicIntegerArray removed = new AtomicIntegerArray(n);
+        int[] current = new int[n];
+        int[] next = new int[n];
+        AtomicInteger size = new AtomicInteger();
+
+        // Count degrees ignoring self-loops and seed the first frontier
+        final int[] seed = current;
+        Parallel.forRange(pool, 0, n, TRIM_GRAIN, (from, to) -> {
+            int[] local = new int[to - from];
+            int count = 0;
+            long explored = 0;
+            for (int v = from; v < to; v++) {
+                int o = countNonSelf(forward, v);
+                int i = countNonSelf(backward, v);
+                explored += forward.degree(v);
+                out.set(v, o);
+                in.set(v, i);
+                if (o == 0 || i == 0) {
+                    removed.set(v, 1);
+                    local[count++] = v;
+                }
+            }
+            System.arraycopy(local, 0, seed, size.getAndAdd(count), count);
+            edgesExplored.add(explored);
+        });
+
+        int frontierSize = size.get();
+        while (frontierSize > 0) {
+            trimmed.add(frontierSize);
+            size.set(0);
+            final int[] frontier = current;
+            final int[] target = next;
+            Parallel.forRange(pool, 0, frontierSize, TRIM_GRAIN, (from, to) -> {
+                int[] local = new int[16];
+                int count = 0;
+                long explored = 0;
+                int base = nextComponent.getAndAdd(to - from);
+                for (int k = from; k < to; k++) {
+                    int v = frontier[k];
+                    componentOf[v] = base + (k - from);
+
+                    int[] offsets = forward.getOffsets();
+                    int[] targets = forward.getTargets();
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        int w = targets[e];
+                        explored++;
+                        if (w != v && removed.get(w) == 0 && in.decrementAndGet(w) == 0
+                                && removed.compareAndSet(w, 0, 1)) {
+                            if (count == local.length) {
+                                local = Arrays.copyOf(local, count * 2);
+                            }
+                            local[count++] = w;
+                        }
+                    }
+
+                    offsets = backward.getOffsets();
+                    targets = backward.getTargets();
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        int x = targets[e];
+                        explored++;
+                        if (x != v && removed.get(x) == 0 && out.decrementAndGet(x) == 0
+                                && removed.compareAndSet(x, 0, 1)) {
+                            if (count == local.length) {
+                                local = Arrays.copyOf(local, count * 2);
+                            }
+                            local[count++] = x;
+                        }
+                    }
+                }
+                System.arraycopy(local, 0, target, size.getAndAdd(count), count);
+                edgesExplored.add(explored);
+            });
+
+            frontierSize = size.get();
+            int[] tmp = current;
+            current = next;
+            next = tmp;
+        }
+
+        int survivors = 0;
+        for (int v = 0; v < n; v++) {
+            if (removed.get(v) == 0) {
+                current[survivors++] = v;
+            }
+        }
+        return Arrays.copyOf(current, survivors);
+    }
+
+    /**
+     * Count edges of v that are not self-loops
+     */
+    private static int countNonSelf(CompactGraph g, int v) {
+        int[] offsets = g.getOffsets();
+        int[] targets = g.getTargets();
+        int count = 0;
+        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+            if (targets[e] != v) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Forward-backward decomposition of one partition. Small sub-partitions are
+     * processed in a loop on this task; large ones are forked. Completion is
+     * tracked with pending counts, so tasks never block in join.
+     */
+    private final class FBTask extends CountedCompleter<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] partition;
+
+        FBTask(CountedCompleter<?> parent, int[] partition) {
+            super(parent);
+            this.partition = partition;
+        }
+
+        @Override
+        public void compute() {
+            ArrayDeque<int[]> work = new ArrayDeque<>();
+            work.push(partition);
+            int[] queue = new int[partition.length];
+            long[] explored = new long[1];
+            long rounds = 0;
+
+            while (!work.isEmpty()) {
+                int[] next = work.pop();
+                int s = color[next[0]]; // All members of a pending partition share its stamp
+                int[] part = trimPartition(next, s, queue, explored);
+                if (part.length == 0) {
+                    continue;
+                }
+
+                // SCC of the pivot = forward reach ∩ backward reach
+                int pivot = part[0];
+                rounds++;
+                explored[0] += reach(forward, pivot, s, fwMark, queue);
+                explored[0] += reach(backward, pivot, s, bwMark, queue);
+
+                int comp = nextComponent.getAndIncrement();
+                int fOnly = 0;
+                int bOnly = 0;
+                int rest = 0;
+                for (int v : part) {
+                    boolean f = fwMark[v] == s;
+                    boolean b = bwMark[v] == s;
+                    if (f && b) {
+                        componentOf[v] = comp;
+                        color[v] = 0;
+                    } else if (f) {
+                        fOnly++;
+                    } else if (b) {
+                        bOnly++;
+                    } else {
+                        rest++;
+                    }
+                }
+
+                int[][] subs = {new int[fOnly], new int[bOnly], new int[rest]};
+                int[] fill = new int[3];
+                for (int v : part) {
+                    if (color[v] != s) {
+                        continue;
+                    }
+                    int which = fwMark[v] == s ? 0 : (bwMark[v] == s ? 1 : 2);
+                    subs[which][fill[which]++] = v;
+                }
+
+                for (int[] sub : subs) {
+                    if (sub.length == 0) {
+                        continue;
+                    }
+                    int subStamp = nextStamp.incrementAndGet();
+                    for (int v : sub) {
+                        color[v] = subStamp;
+                    }
+                    if (sub.length >= FORK_THRESHOLD) {
+                        addToPendingCount(1);
+                        new FBTask(this, sub).fork();
+                    } else {
+                        work.push(sub);
+                    }
+                }
+            }
+
+            edgesExplored.add(explored[0]);
+            pivots.add(rounds);
+            tryComplete();
+        }
+    }
+
+    /**
+     * Sequentially trim vertices with no in- or out-edges inside the partition
+     * @return the members of the partition that remain
+     */
+    private int[] trimPartition(int[] part, int stamp, int[] queue, long[] explored) {
+        int[] fOffsets = forward.getOffsets();
+        int[] fTargets = forward.getTargets();
+        int[] bOffsets = backward.getOffsets();
+        int[] bTargets = backward.getTargets();
+
+        for (int v : part) {
+            int out = 0;
+            for (int e = fOffsets[v]; e < fOffsets[v + 1]; e++) {
+                int w = fTargets[e];
+                if (w != v && color[w] == stamp) {
+                    out++;
+                }
+            }
+            int in = 0;
+            for (int e = bOffsets[v]; e < bOffsets[v + 1]; e++) {
+                int x = bTargets[e];
+                if (x != v && color[x] == stamp) {
+                    in++;
+                }
+            }
+            explored[0] += (fOffsets[v + 1] - fOffsets[v]) + (bOffsets[v + 1] - bOffsets[v]);
+            outDegree[v] = out;
+            inDegree[v] = in;
+        }
+
+        int head = 0;
+        int tail = 0;
+        for (int v : part) {
+            if (outDegree[v] == 0 || inDegree[v] == 0) {
+                color[v] = 0;
+                queue[tail++] = v;
+            }
+        }
+        if (tail == 0) {
+            return part;
+        }
+
+        while (head < tail) {
+            int v = queue[head++];
+            componentOf[v] = nextComponent.getAndIncrement();
+            for (int e = fOffsets[v]; e < fOffsets[v + 1]; e++) {
+                int w = fTargets[e];
+                if (color[w] == stamp && --inDegree[w] == 0) {
+                    color[w] = 0;
+                    queue[tail++] = w;
+                }
+            }
+            for (int e = bOffsets[v]; e < bOffsets[v + 1]; e++) {
+                int x = bTargets[e];
+                if (color[x] == stamp && --outDegree[x] == 0) {
+                    color[x] = 0;
+                    queue[tail++] = x;
+                }
+            }
+        }
+        trimmed.add(tail);
+
+        int[] remaining = new int[part.length - tail];
+        int count = 0;
+        for (int v : part) {
+            if (color[v] == stamp) {
+                remaining[count++] = v;
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * BFS from pivot over vertices carrying the given stamp, marking each reached vertex
+     * @return number of edges scanned
+     */
+    private long reach(CompactGraph g, int pivot, int stamp, int[] mark, int[] queue) {
+        int[] offsets = g.getOffsets();
+        int[] targets = g.getTargets();
+        int head = 0;
+        int tail = 0;
+        long explored = 0;
+
+        mark[pivot] = stamp;
+        queue[tail++] = pivot;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                explored++;
+                if (color[v] == stamp && mark[v] != stamp) {
+                    mark[v] = stamp;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return explored;
+    }
+
+    /**
+     * Renumber components by smallest vertex and group their members
+     */
+    private SccResult normalize(int n) {
+        int[] relabel = new int[nextComponent.get()];
+        Arrays.fill(relabel, -1);
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            int c = componentOf[v];
+            if (relabel[c] == -1) {
+                relabel[c] = count++;
+            }
+            componentOf[v] = relabel[c];
+        }
+        return SccResult.fromComponentIds(componentOf, count);
+    }
+
+    /**
+     * Get metrics from the last execution
+     */
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Create a mapping from vertex to its SCC index.
+     * Returns the array of the last result without copying; must not be modified.
+     */
+    @Override
+    public int[] getVertexToSCCMapping() {
+        return result.getComponentOf();
+    }
+
+    /**
+     * Build the condensation graph (DAG of SCCs)
+     * @param policy how to combine weights of edges between the same pair of SCCs
+     * @return condensation graph where each node is an SCC
+     */
+    @Override
+    public Graph buildCondensationGraph(CondensationBuilder.WeightPolicy policy) {
+        metrics.startPhase("condense");
+        Graph condensation = CondensationBuilder.build(graph, result, policy);
+        metrics.endPhase("condense");
+        return condensation;
+    }
+}
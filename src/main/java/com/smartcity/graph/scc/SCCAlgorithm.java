@@ -0,0 +1,66 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.GraphView;
+
+/**
+ * Available SCC algorithms, selectable at runtime by name
+ * (e.g. -Dscc.algorithm=parallel).
+ */
+public enum SCCAlgorithm {
+    TARJAN("Tarjan's Algorithm") {
+        @Override
+        public SCCFinder create(GraphView graph) {
+            return new TarjanSCC(graph);
+        }
+    },
+    PARALLEL("Parallel Forward-Backward") {
+        @Override
+        public SCCFinder create(GraphView graph) {
+            return new ParallelSCC(graph);
+        }
+    };
+
+    /**
+     * System property used to pick the algorithm
+     */
+    public static final String PROPERTY = "scc.algorithm";
+
+    private final String displayName;
+
+    SCCAlgorithm(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Create a finder for the given graph
+     */
+    public abstract SCCFinder create(GraphView graph);
+
+    /**
+     * Human-readable algorithm name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Look up an algorithm by name, case-insensitive
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static SCCAlgorithm fromName(String name) {
+        for (SCCAlgorithm algorithm : values()) {
+            if (algorithm.name().equalsIgnoreCase(name.trim())) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unknown SCC algorithm: " + name);
+    }
+
+    /**
+     * Algorithm named by the scc.algorithm system property, Tarjan if unset
+     */
+    public static SCCAlgorithm fromSystemProperty() {
+        String name = System.getProperty(PROPERTY);
+        return name == null ? TARJAN : fromName(name);
+    }
+}
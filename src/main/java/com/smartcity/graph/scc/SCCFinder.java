@@ -0,0 +1,51 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.Graph;
+import com.smartcity.common.Metrics;
+
+import java.util.List;
+
+/**
+ * Common interface for strongly connected component algorithms.
+ */
+public interface SCCFinder {
+    /**
+     * Find all strongly connected components
+     * @return list of SCCs, each SCC is a list of vertex indices (lazy view of findComponents)
+     */
+    default List<List<Integer>> findSCCs() {
+        return findComponents().asLists();
+    }
+
+    /**
+     * Find all strongly connected components in compact array form
+     * @return component id per vertex plus grouped members
+     */
+    SccResult findComponents();
+
+    /**
+     * Create a mapping from vertex to its SCC index (from the last run)
+     */
+    int[] getVertexToSCCMapping();
+
+    /**
+     * Build the condensation graph (DAG of SCCs), keeping the first-seen weight
+     * of parallel inter-SCC edges
+     * @return condensation graph where each node is an SCC
+     */
+    default Graph buildCondensationGraph() {
+        return buildCondensationGraph(CondensationBuilder.WeightPolicy.FIRST);
+    }
+
+    /**
+     * Build the condensation graph (DAG of SCCs)
+     * @param policy how to combine weights of edges between the same pair of SCCs
+     * @return condensation graph where each node is an SCC
+     */
+    Graph buildCondensationGraph(CondensationBuilder.WeightPolicy policy);
+
+    /**
+     * Get metrics from the last execution
+     */
+    Metrics getMetrics();
+}
@@ -0,0 +1,137 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.IntListView;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Compact result of an SCC decomposition.
+ * componentOf[v] is the component of vertex v; the members of component c are
+ * members[offsets[c] .. offsets[c + 1] - 1]. The List view is only built on demand.
+ */
+public final class SccResult {
+    private final int[] componentOf;
+    private final int[] offsets;
+    private final int[] members;
+    private List<List<Integer>> lists;
+
+    /**
+     * Wrap the component arrays (not copied)
+     * @param componentOf component index per vertex
+     * @param offsets member offsets per component, length = number of components + 1
+     * @param members vertices grouped by component
+     */
+    public SccResult(int[] componentOf, int[] offsets, int[] members) {
+        this.componentOf = componentOf;
+        this.offsets = offsets;
+        this.members = members;
+    }
+
+    /**
+     * Build a result from component ids alone; members of each component are ascending
+     * @param componentOf component index per vertex, values in [0, count)
+     * @param count number of components
+     */
+    public static SccResult fromComponentIds(int[] componentOf, int count) {
+        int[] offsets = new int[count + 1];
+        for (int c : componentOf) {
+            offsets[c + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+
+        int[] members = new int[componentOf.length];
+        int[] cursor = new int[count];
+        System.arraycopy(offsets, 0, cursor, 0, count);
+        for (int v = 0; v < componentOf.length; v++) {
+            members[cursor[componentOf[v]]++] = v;
+        }
+        return new SccResult(componentOf, offsets, members);
+    }
+
+    /**
+     * Get number of components
+     */
+    public int getComponentCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Get the component of vertex v
+     */
+    public int componentOf(int v) {
+        return componentOf[v];
+    }
+
+    /**
+     * Get number of vertices in component c
+     */
+    public int size(int c) {
+        return offsets[c + 1] - offsets[c];
+    }
+
+    /**
+     * Get the i-th vertex of component c
+     */
+    public int member(int c, int i) {
+        return members[offsets[c] + i];
+    }
+
+    /**
+     * Get the vertex-to-component array. Shared, must not be modified.
+     */
+    public int[] getComponentOf() {
+        return componentOf;
+    }
+
+    /**
+     * Get the component offsets array. Shared, must not be modified.
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Get the grouped members array. Shared, must not be modified.
+     */
+    public int[] getMembers() {
+        return members;
+    }
+
+    /**
+     * Get the vertices of component c as a read-only list view
+     */
+    public List<Integer> component(int c) {
+        return new IntListView(members, offsets[c], offsets[c + 1]);
+    }
+
+    /**
+     * Get all components as read-only lists, created lazily on first call
+     */
+    public List<List<Integer>> asLists() {
+        if (lists == null) {
+            lists = new ComponentList();
+        }
+        return lists;
+    }
+
+    /**
+     * List of component views over the shared arrays
+     */
+    private final class ComponentList extends AbstractList<List<Integer>> implements RandomAccess {
+        @Override
+        public List<Integer> get(int index) {
+            Objects.checkIndex(index, getComponentCount());
+            return component(index);
+        }
+
+        @Override
+        public int size() {
+            return getComponentCount();
+        }
+    }
+}
@@ -1,54 +1,106 @@
 package com.smartcity.graph.scc;
 
+import com.smartcity.common.Counter;
 import com.smartcity.common.Graph;
+import com.smartcity.common.GraphView;
 import com.smartcity.common.Metrics;
-import com.smartcity.common.MetricsImpl;
+import com.smartcity.common.MetricsFactory;
 
 import java.util.*;
 
 /**
  * Tarjan's algorithm for finding Strongly Connected Components.
  * Uses a single DFS pass with discovery time and low-link values.
+ * The DFS runs on explicit int[] stacks, so deep chains cannot overflow the thread stack.
  */
-public class TarjanSCC {
-    private final Graph graph;
+public class TarjanSCC implements SCCFinder {
+    private final GraphView graph;
     private final Metrics metrics;
+    private final Counter dfsVisits;
+    private final Counter edgesExplored;
+    private final Counter stackPops;
+    private final Counter sccsFound;
 
     private int[] disc;      // Discovery time
     private int[] low;       // Low-link value
     private boolean[] onStack;
-    private Stack<Integer> stack;
+    private int[] sccStack;  // Tarjan vertex stack
+    private int sccTop;
+    private int[] callStack; // Explicit DFS call stack (vertex per frame)
+    private int[] edgeCursor; // Next edge index to explore per frame
     private int time;
-    private List<List<Integer>> sccs;
+    private int[] componentOf;
+    private int[] offsets;   // Component boundaries in members, filled as SCCs are popped
+    private int[] members;
+    private int componentCount;
+    private int memberCount;
+    private SccResult result;
 
     /**
      * Create Tarjan SCC finder
-     * @param graph the directed graph
+     * @param graph the directed graph (any backend, e.g. Graph or CompactGraph)
      */
-    public TarjanSCC(Graph graph) {
+    public TarjanSCC(GraphView graph) {
+        this(graph, MetricsFactory.fromSystemProperty());
+    }
+
+    /**
+     * Create Tarjan SCC finder with metrics from the given factory
+     * @param graph the directed graph (any backend, e.g. Graph or CompactGraph)
+     * @param metricsFactory creates the metrics instance, e.g. MetricsFactory.CONCURRENT
+     */
+    public TarjanSCC(GraphView graph, MetricsFactory metricsFactory) {
+        this(graph, metricsFactory.create());
+    }
+
+    /**
+     * Create Tarjan SCC finder recording into the given metrics
+     * @param graph the directed graph (any backend, e.g. Graph or CompactGraph)
+     * @param metrics where counters and time are recorded, e.g. NoOpMetrics.INSTANCE
+     */
+    public TarjanSCC(GraphView graph, Metrics metrics) {
         if (!graph.isDirected()) {
             throw new IllegalArgumentException("Graph must be directed");
         }
         this.graph = graph;
-        this.metrics = new MetricsImpl();
+        this.metrics = metrics;
+        this.dfsVisits = metrics.counter("dfs_visits");
+        this.edgesExplored = metrics.counter("edges_explored");
+        this.stackPops = metrics.counter("stack_pops");
+        this.sccsFound = metrics.counter("sccs_found");
     }
 
     /**
-     * Find all strongly connected components
-     * @return list of SCCs, each SCC is a list of vertex indices
+     * Find all strongly connected components in compact form.
+     * Components are numbered in the order Tarjan completes them (reverse topological).
+     * @return component arrays for every vertex
      */
-    public List<List<Integer>> findSCCs() {
+    @Override
+    public SccResult findComponents() {
         int n = graph.getN();
+
+        metrics.startTimer();
+        metrics.startPhase("scc");
+        metrics.startPhase("init");
+
         disc = new int[n];
         low = new int[n];
         onStack = new boolean[n];
-        stack = new Stack<>();
-        sccs = new ArrayList<>();
+        sccStack = new int[n];
+        sccTop = 0;
+        callStack = new int[n];
+        edgeCursor = new int[n];
+        componentOf = new int[n];
+        offsets = new int[n + 1];
+        members = new int[n];
+        componentCount = 0;
+        memberCount = 0;
         time = 0;
 
         Arrays.fill(disc, -1);
 
-        metrics.startTimer();
+        metrics.endPhase("init");
+        metrics.startPhase("dfs");
 
         // Run DFS from all unvisited vertices
         for (int i = 0; i < n; i++) {
@@ -57,102 +109,112 @@ public class TarjanSCC {
             }
         }
 
-        metrics.stopTimer();
+        metrics.endPhase("dfs");
+
+        result = new SccResult(componentOf, Arrays.copyOf(offsets, componentCount + 1), members);
 
-        return sccs;
+        metrics.endPhase("scc");
+        metrics.stopTimer();
+        return result;
     }
 
     /**
-     * DFS traversal for Tarjan's algorithm
+     * Iterative DFS traversal for Tarjan's algorithm.
+     * Each frame of the explicit call stack holds a vertex and the index of
+     * its next unexplored edge, so chain depth is limited only by n.
      */
-    private void dfs(int u) {
-        metrics.increment("dfs_visits");
+    private void dfs(int root) {
+        int depth = 0;
+        callStack[depth] = root;
+        edgeCursor[depth] = 0;
+        depth++;
+        visit(root);
+
+        while (depth > 0) {
+            int u = callStack[depth - 1];
+            int i = edgeCursor[depth - 1];
+
+            if (i < graph.degree(u)) {
+                // Explore the next edge of u
+                edgeCursor[depth - 1] = i + 1;
+                int v = graph.target(u, i);
+                edgesExplored.increment();
+
+                if (disc[v] == -1) {
+                    // Tree edge: descend into v
+                    callStack[depth] = v;
+                    edgeCursor[depth] = 0;
+                    depth++;
+                    visit(v);
+                } else if (onStack[v]) {
+                    // Back edge to vertex in current SCC
+                    low[u] = Math.min(low[u], disc[v]);
+                }
+                continue;
+            }
 
-        // Initialize discovery time and low-link
-        disc[u] = low[u] = time++;
-        stack.push(u);
-        onStack[u] = true;
+            // All edges of u explored: return to the parent frame
+            depth--;
+
+            // If u is a root node, pop the stack and create SCC
+            if (low[u] == disc[u]) {
+                int v;
+                do {
+                    v = sccStack[--sccTop];
+                    onStack[v] = false;
+                    componentOf[v] = componentCount;
+                    members[memberCount++] = v;
+                    stackPops.increment();
+                } while (v != u);
+
+                offsets[++componentCount] = memberCount;
+                sccsFound.increment();
+            }
 
-        // Visit all neighbors
-        for (Graph.Edge e : graph.getNeighbors(u)) {
-            int v = e.to;
-            metrics.increment("edges_explored");
-
-            if (disc[v] == -1) {
-                // Tree edge
-                dfs(v);
-                low[u] = Math.min(low[u], low[v]);
-            } else if (onStack[v]) {
-                // Back edge to vertex in current SCC
-                low[u] = Math.min(low[u], disc[v]);
+            if (depth > 0) {
+                int parent = callStack[depth - 1];
+                low[parent] = Math.min(low[parent], low[u]);
             }
         }
+    }
 
-        // If u is a root node, pop the stack and create SCC
-        if (low[u] == disc[u]) {
-            List<Integer> scc = new ArrayList<>();
-            int v;
-            do {
-                v = stack.pop();
-                onStack[v] = false;
-                scc.add(v);
-                metrics.increment("stack_pops");
-            } while (v != u);
-
-            sccs.add(scc);
-            metrics.increment("sccs_found");
-        }
+    /**
+     * Assign discovery time and low-link to u and push it on the SCC stack
+     */
+    private void visit(int u) {
+        dfsVisits.increment();
+        disc[u] = low[u] = time++;
+        sccStack[sccTop++] = u;
+        onStack[u] = true;
     }
 
     /**
      * Get metrics from the last execution
      */
+    @Override
     public Metrics getMetrics() {
         return metrics;
     }
 
     /**
-     * Create a mapping from vertex to its SCC index
+     * Create a mapping from vertex to its SCC index.
+     * Returns the array of the last result without copying; must not be modified.
      */
+    @Override
     public int[] getVertexToSCCMapping() {
-        int[] mapping = new int[graph.getN()];
-        for (int i = 0; i < sccs.size(); i++) {
-            for (int v : sccs.get(i)) {
-                mapping[v] = i;
-            }
-        }
-        return mapping;
+        return result.getComponentOf();
     }
 
     /**
      * Build the condensation graph (DAG of SCCs)
+     * @param policy how to combine weights of edges between the same pair of SCCs
      * @return condensation graph where each node is an SCC
      */
-    public Graph buildCondensationGraph() {
-        int numSCCs = sccs.size();
-        Graph condensation = new Graph(numSCCs, true);
-        int[] vertexToSCC = getVertexToSCCMapping();
-
-        Set<String> addedEdges = new HashSet<>();
-
-        for (int u = 0; u < graph.getN(); u++) {
-            int sccU = vertexToSCC[u];
-
-            for (Graph.Edge e : graph.getNeighbors(u)) {
-                int v = e.to;
-                int sccV = vertexToSCC[v];
-
-                // Add edge between different SCCs
-                if (sccU != sccV) {
-                    String edgeKey = sccU + "->" + sccV;
-                    if (!addedEdges.contains(edgeKey)) {
-                        condensation.addEdge(sccU, sccV, e.weight);
-                        addedEdges.add(edgeKey);
-                    }
-                }
-            }
-        }
-
+    @Override
+    public Graph buildCondensationGraph(CondensationBuilder.WeightPolicy policy) {
+        metrics.startPhase("condense");
+        Graph condensation = CondensationBuilder.build(graph, result, policy);
+        metrics.endPhase("condense");
         return condensation;
     }
-}
\ No newline at end of file
+}
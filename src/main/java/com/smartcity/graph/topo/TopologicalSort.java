@@ -1,29 +1,111 @@
 package com.smartcity.graph.topo;
 
-import com.smartcity.common.Graph;
+import com.smartcity.common.Counter;
+import com.smartcity.common.GraphView;
+import com.smartcity.common.IntListView;
 import com.smartcity.common.Metrics;
-import com.smartcity.common.MetricsImpl;
+import com.smartcity.common.MetricsFactory;
+import com.smartcity.common.Parallel;
+import com.smartcity.graph.scc.SccResult;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * Topological sorting using Kahn's algorithm (BFS-based).
  * Works only on DAGs (Directed Acyclic Graphs).
  */
 public class TopologicalSort {
-    private final Graph graph;
+    private static final int LEVEL_GRAIN = 2048; // Frontier chunk size; smaller levels run inline
+    private static final String LEVEL_WIDTH_PREFIX = "level_width_le_";
+
+    private final GraphView graph;
     private final Metrics metrics;
+    private final Counter queuePushes;
+    private final Counter queuePops;
+    private final Counter edgesProcessed;
+    private final Counter dfsVisits;
+    private final Counter edgesExplored;
+    private final Counter levelCount;
+    private final Counter maxLevelWidth;
+    private final Counter parallelLevels;
+    private int[] inDegree; // Scratch buffer reused by sortInto and sortLayers
+    private int reportedWidthBuckets; // level_width_le_* counters set by the last sortLayers
+
+    /**
+     * Topological levels: level k holds the vertices whose predecessors all lie in
+     * levels 0 .. k-1, so every vertex of a level can be dispatched in parallel.
+     * Level k is order[levelOffsets[k] .. levelOffsets[k + 1] - 1], sorted ascending.
+     */
+    public static class Layers {
+        public final int[] order;
+        public final int[] levelOffsets;
+
+        public Layers(int[] order, int[] levelOffsets) {
+            this.order = order;
+            this.levelOffsets = levelOffsets;
+        }
+
+        /**
+         * Get number of levels
+         */
+        public int getLevelCount() {
+            return levelOffsets.length - 1;
+        }
+
+        /**
+         * Get number of vertices in level k
+         */
+        public int getLevelWidth(int k) {
+            return levelOffsets[k + 1] - levelOffsets[k];
+        }
+
+        /**
+         * Get the vertices of level k as a read-only list view
+         */
+        public List<Integer> getLevel(int k) {
+            return new IntListView(order, levelOffsets[k], levelOffsets[k + 1]);
+        }
+    }
 
     /**
      * Create topological sorter
-     * @param graph the directed acyclic graph
+     * @param graph the directed acyclic graph (any backend, e.g. Graph or CompactGraph)
      */
-    public TopologicalSort(Graph graph) {
+    public TopologicalSort(GraphView graph) {
+        this(graph, MetricsFactory.fromSystemProperty());
+    }
+
+    /**
+     * Create topological sorter with metrics from the given factory
+     * @param graph the directed acyclic graph (any backend, e.g. Graph or CompactGraph)
+     * @param metricsFactory creates the metrics instance, e.g. MetricsFactory.CONCURRENT
+     */
+    public TopologicalSort(GraphView graph, MetricsFactory metricsFactory) {
+        this(graph, metricsFactory.create());
+    }
+
+    /**
+     * Create topological sorter recording into the given metrics
+     * @param graph the directed acyclic graph (any backend, e.g. Graph or CompactGraph)
+     * @param metrics where counters and time are recorded, e.g. NoOpMetrics.INSTANCE
+     */
+    public TopologicalSort(GraphView graph, Metrics metrics) {
         if (!graph.isDirected()) {
             throw new IllegalArgumentException("Graph must be directed");
         }
         this.graph = graph;
-        this.metrics = new MetricsImpl();
+        this.metrics = metrics;
+        this.queuePushes = metrics.counter("queue_pushes");
+        this.queuePops = metrics.counter("queue_pops");
+        this.edgesProcessed = metrics.counter("edges_processed");
+        this.dfsVisits = metrics.counter("dfs_visits");
+        this.edgesExplored = metrics.counter("edges_explored");
+        this.levelCount = metrics.counter("levels");
+        this.maxLevelWidth = metrics.counter("max_level_width");
+        this.parallelLevels = metrics.counter("parallel_levels");
     }
 
     /**
@@ -31,55 +113,231 @@ public class TopologicalSort {
      * @return topologically sorted list of vertices, or null if cycle detected
      */
     public List<Integer> sort() {
+        int[] order = sortToArray();
+        return order == null ? null : IntListView.of(order);
+    }
+
+    /**
+     * Perform topological sort using Kahn's algorithm into a new array
+     * @return topological order of all vertices, or null if cycle detected
+     */
+    public int[] sortToArray() {
+        int[] order = new int[graph.getN()];
+        return sortInto(order) ? order : null;
+    }
+
+    /**
+     * Perform topological sort using Kahn's algorithm into a caller-owned buffer.
+     * The order array doubles as the FIFO queue: vertices between head and tail are
+     * queued, vertices before head are already emitted. The in-degree scratch array
+     * is kept between calls, so repeated sorts of the same graph allocate nothing.
+     * @param order buffer of length at least n; on success holds the order in [0, n)
+     * @return true if the whole graph was ordered, false if a cycle was detected
+     */
+    public boolean sortInto(int[] order) {
         int n = graph.getN();
-        int[] inDegree = new int[n];
+        if (order.length < n) {
+            throw new IllegalArgumentException("Order buffer too small: " + order.length + " < " + n);
+        }
+
+        metrics.startTimer();
+        metrics.startPhase("topo");
+        metrics.startPhase("indegree");
+
+        if (inDegree == null || inDegree.length != n) {
+            inDegree = new int[n];
+        } else {
+            Arrays.fill(inDegree, 0);
+        }
 
         // Calculate in-degrees
         for (int u = 0; u < n; u++) {
-            for (Graph.Edge e : graph.getNeighbors(u)) {
-                inDegree[e.to]++;
+            int deg = graph.degree(u);
+            for (int i = 0; i < deg; i++) {
+                inDegree[graph.target(u, i)]++;
             }
         }
 
         // Initialize queue with vertices having in-degree 0
-        Queue<Integer> queue = new LinkedList<>();
+        int head = 0;
+        int tail = 0;
         for (int i = 0; i < n; i++) {
             if (inDegree[i] == 0) {
-                queue.offer(i);
-                metrics.increment("queue_pushes");
+                order[tail++] = i;
             }
         }
 
-        List<Integer> result = new ArrayList<>();
+        metrics.endPhase("indegree");
+        metrics.startPhase("kahn");
+
+        // Pushes, pops and edges are totalled locally and flushed once
+        long edges = 0;
+        while (head < tail) {
+            int u = order[head++];
+
+            // Reduce in-degree of neighbors
+            int deg = graph.degree(u);
+            edges += deg;
+            for (int i = 0; i < deg; i++) {
+                int v = graph.target(u, i);
+                if (--inDegree[v] == 0) {
+                    order[tail++] = v;
+                }
+            }
+        }
+
+        metrics.endPhase("kahn");
+        metrics.endPhase("topo");
+        metrics.stopTimer();
+
+        queuePushes.add(tail);
+        queuePops.add(head);
+        edgesProcessed.add(edges);
+
+        // All vertices were processed only if there is no cycle
+        return tail == n;
+    }
+
+    /**
+     * Level-synchronous (wavefront) Kahn sort on the common fork/join pool
+     * @return topological levels, or null if cycle detected
+     */
+    public Layers sortLayers() {
+        return sortLayers(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Level-synchronous (wavefront) Kahn sort. Each frontier is split into chunks
+     * that decrement in-degrees atomically; vertices reaching zero form the next level.
+     * Frontiers up to LEVEL_GRAIN vertices are processed on the calling thread.
+     *
+     * The levels, max_level_width and parallel_levels counters describe the last call
+     * only, as does the level width distribution: level_width_le_<2^k> counts the levels
+     * whose width is in (2^(k-1), 2^k].
+     * @param pool the pool processing large frontiers
+     * @return topological levels, or null if cycle detected
+     */
+    public Layers sortLayers(ForkJoinPool pool) {
+        int n = graph.getN();
+        int[] order = new int[n];
+        int[] levelOffsets = new int[n + 1];
+        int[] widthCounts = new int[Integer.SIZE];
+        AtomicInteger tail = new AtomicInteger();
 
         metrics.startTimer();
+        metrics.startPhase("topo");
+        metrics.startPhase("indegree");
 
-        while (!queue.isEmpty()) {
-            int u = queue.poll();
-            metrics.increment("queue_pops");
-            result.add(u);
+        if (inDegree == null || inDegree.length != n) {
+            inDegree = new int[n];
+        } else {
+            Arrays.fill(inDegree, 0);
+        }
 
-            // Reduce in-degree of neighbors
-            for (Graph.Edge e : graph.getNeighbors(u)) {
-                int v = e.to;
-                metrics.increment("edges_processed");
-                inDegree[v]--;
-
-                if (inDegree[v] == 0) {
-                    queue.offer(v);
-                    metrics.increment("queue_pushes");
+        // Calculate in-degrees sequentially into the plain scratch array
+        for (int u = 0; u < n; u++) {
+            int deg = graph.degree(u);
+            for (int i = 0; i < deg; i++) {
+                inDegree[graph.target(u, i)]++;
+            }
+        }
+
+        // Level 0: vertices with in-degree 0
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (inDegree[i] == 0) {
+                order[size++] = i;
+            }
+        }
+        tail.set(size);
+
+        // Atomic copy only for the concurrent decrements
+        AtomicIntegerArray remaining = new AtomicIntegerArray(inDegree);
+
+        metrics.endPhase("indegree");
+        metrics.startPhase("levels");
+
+        int levels = 0;
+        int maxWidth = 0;
+        int parallel = 0;
+        long edges = 0;
+        int head = 0;
+        while (head < size) {
+            int width = size - head;
+            levelOffsets[levels++] = head;
+            maxWidth = Math.max(maxWidth, width);
+            widthCounts[Integer.SIZE - Integer.numberOfLeadingZeros(width - 1)]++;
+            if (width > LEVEL_GRAIN) {
+                parallel++;
+            }
+
+            final int levelStart = head;
+            Parallel.forRange(pool, levelStart, size, LEVEL_GRAIN, (from, to) -> {
+                int[] local = new int[16];
+                int count = 0;
+                for (int k = from; k < to; k++) {
+                    int u = order[k];
+                    int deg = graph.degree(u);
+                    for (int i = 0; i < deg; i++) {
+                        int v = graph.target(u, i);
+                        if (remaining.decrementAndGet(v) == 0) {
+                            if (count == local.length) {
+                                local = Arrays.copyOf(local, count * 2);
+                            }
+                            local[count++] = v;
+                        }
+                    }
                 }
+                System.arraycopy(local, 0, order, tail.getAndAdd(count), count);
+            });
+            for (int k = levelStart; k < size; k++) {
+                edges += graph.degree(order[k]);
             }
+
+            head = size;
+            size = tail.get();
+            Arrays.sort(order, head, size); // Chunks append in arbitrary order
         }
+        levelOffsets[levels] = size;
 
+        metrics.endPhase("levels");
+        metrics.endPhase("topo");
         metrics.stopTimer();
 
-        // Check if all vertices were processed (no cycle)
-        if (result.size() != n) {
+        set(levelCount, levels);
+        set(maxLevelWidth, maxWidth);
+        set(parallelLevels, parallel);
+        reportLevelWidths(widthCounts);
+        edgesProcessed.add(edges);
+
+        if (size != n) {
             return null; // Cycle detected
         }
+        return new Layers(order, Arrays.copyOf(levelOffsets, levels + 1));
+    }
 
-        return result;
+    /**
+     * Overwrite a per-call counter instead of adding to it
+     */
+    private static void set(Counter counter, long value) {
+        counter.add(value - counter.get());
+    }
+
+    /**
+     * Set level_width_le_<2^k> for every bucket used by this or the previous call,
+     * so buckets left over from an earlier graph read 0
+     */
+    private void reportLevelWidths(int[] widthCounts) {
+        int used = 0;
+        for (int b = 0; b < widthCounts.length; b++) {
+            if (widthCounts[b] > 0) {
+                used = b + 1;
+            }
+        }
+        for (int b = 0; b < Math.max(used, reportedWidthBuckets); b++) {
+            set(metrics.counter(LEVEL_WIDTH_PREFIX + (1L << b)), widthCounts[b]);
+        }
+        reportedWidthBuckets = used;
     }
 
     /**
@@ -87,30 +345,39 @@ public class TopologicalSort {
      * @return topologically sorted list of vertices, or null if cycle detected
      */
     public List<Integer> sortDFS() {
+        metrics.reset();
+        metrics.startTimer();
+        metrics.startPhase("topo");
+        metrics.startPhase("dfs");
+
         int n = graph.getN();
         boolean[] visited = new boolean[n];
         boolean[] recStack = new boolean[n];
         Stack<Integer> stack = new Stack<>();
 
-        metrics.reset();
-        metrics.startTimer();
-
         for (int i = 0; i < n; i++) {
             if (!visited[i]) {
                 if (dfsHelper(i, visited, recStack, stack)) {
+                    metrics.endPhase("dfs");
+                    metrics.endPhase("topo");
                     metrics.stopTimer();
                     return null; // Cycle detected
                 }
             }
         }
 
-        metrics.stopTimer();
+        metrics.endPhase("dfs");
 
         // Pop all vertices from stack
+        metrics.startPhase("collect");
         List<Integer> result = new ArrayList<>();
         while (!stack.isEmpty()) {
             result.add(stack.pop());
         }
+        metrics.endPhase("collect");
+
+        metrics.endPhase("topo");
+        metrics.stopTimer();
 
         return result;
     }
@@ -122,11 +389,12 @@ public class TopologicalSort {
     private boolean dfsHelper(int u, boolean[] visited, boolean[] recStack, Stack<Integer> stack) {
         visited[u] = true;
         recStack[u] = true;
-        metrics.increment("dfs_visits");
+        dfsVisits.increment();
 
-        for (Graph.Edge e : graph.getNeighbors(u)) {
-            int v = e.to;
-            metrics.increment("edges_explored");
+        int deg = graph.degree(u);
+        for (int i = 0; i < deg; i++) {
+            int v = graph.target(u, i);
+            edgesExplored.increment();
 
             if (!visited[v]) {
                 if (dfsHelper(v, visited, recStack, stack)) {
@@ -162,4 +430,42 @@ public class TopologicalSort {
         }
         return expanded;
     }
-}
\ No newline at end of file
+
+    /**
+     * Expand SCC topological order to original vertices using the compact SCC result
+     * @param sccOrder topological order of SCCs
+     * @param sccs components of the original graph
+     * @return topological order of original vertices
+     */
+    public static List<Integer> expandSCCOrder(List<Integer> sccOrder, SccResult sccs) {
+        int[] offsets = sccs.getOffsets();
+        int[] members = sccs.getMembers();
+        int[] expanded = new int[members.length];
+        int size = 0;
+        for (int sccIdx : sccOrder) {
+            int length = offsets[sccIdx + 1] - offsets[sccIdx];
+            System.arraycopy(members, offsets[sccIdx], expanded, size, length);
+            size += length;
+        }
+        return new IntListView(expanded, 0, size);
+    }
+
+    /**
+     * Expand a primitive SCC topological order to original vertices
+     * @param sccOrder topological order of SCCs
+     * @param sccs components of the original graph
+     * @return topological order of original vertices
+     */
+    public static int[] expandSCCOrder(int[] sccOrder, SccResult sccs) {
+        int[] offsets = sccs.getOffsets();
+        int[] members = sccs.getMembers();
+        int[] expanded = new int[members.length];
+        int size = 0;
+        for (int sccIdx : sccOrder) {
+            int length = offsets[sccIdx + 1] - offsets[sccIdx];
+            System.arraycopy(members, offsets[sccIdx], expanded, size, length);
+            size += length;
+        }
+        return size == expanded.length ? expanded : Arrays.copyOf(expanded, size);
+    }
+}
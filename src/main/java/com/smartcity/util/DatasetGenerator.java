@@ -1,5 +1,6 @@
 package com.smartcity.util;
 
+import com.smartcity.common.Graph;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
@@ -7,7 +8,9 @@ import com.google.gson.JsonObject;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.Random;
+import java.util.Set;
 
 /**
  * Utility to generate test datasets for graph algorithms.
@@ -57,11 +60,42 @@ public class DatasetGenerator {
         }
     }
 
+    /**
+     * Generate a random directed graph in memory, for benchmarks too large for JSON.
+     * Edges are drawn uniformly without self-loops and may repeat; in a DAG every edge
+     * goes from a lower to a higher index. Weights are 1 to 10.
+     * @param n number of vertices (at least 2)
+     * @param edges number of edges to draw
+     * @param hasCycles false to generate a DAG
+     * @return the generated graph
+     */
+    public Graph generateGraph(int n, int edges, boolean hasCycles) {
+        if (n < 2 || edges < 0) {
+            throw new IllegalArgumentException("Need n >= 2 and edges >= 0: " + n + ", " + edges);
+        }
+        Graph graph = new Graph(n, true);
+        for (int i = 0; i < edges; i++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n - 1);
+            if (v >= u) {
+                v++; // Skip the self-loop
+            }
+            if (!hasCycles && u > v) {
+                int t = u;
+                u = v;
+                v = t;
+            }
+            graph.addEdge(u, v, random.nextInt(10) + 1);
+        }
+        return graph;
+    }
+
     /**
      * Generate DAG with topological structure
      */
     private JsonArray generateDAG(int n, double density) {
         JsonArray edges = new JsonArray();
+        Set<Long> present = new HashSet<>();
         int maxEdges = n * (n - 1) / 2;
         int targetEdges = (int) (maxEdges * density);
 
@@ -74,6 +108,7 @@ public class DatasetGenerator {
                     edge.addProperty("v", v);
                     edge.addProperty("w", random.nextInt(10) + 1);
                     edges.add(edge);
+                    present.add(edgeKey(u, v));
                 }
             }
         }
@@ -81,7 +116,7 @@ public class DatasetGenerator {
         // Ensure connectivity: create a path from 0 to n-1
         if (edges.size() == 0 || !isConnectedPath(edges, n)) {
             for (int i = 0; i < n - 1; i++) {
-                if (!hasEdge(edges, i, i + 1)) {
+                if (present.add(edgeKey(i, i + 1))) {
                     JsonObject edge = new JsonObject();
                     edge.addProperty("u", i);
                     edge.addProperty("v", i + 1);
@@ -99,6 +134,7 @@ public class DatasetGenerator {
      */
     private JsonArray generateGraphWithCycles(int n, double density) {
         JsonArray edges = new JsonArray();
+        Set<Long> present = new HashSet<>();
         int maxEdges = n * (n - 1);
         int targetEdges = (int) (maxEdges * density);
 
@@ -117,6 +153,7 @@ public class DatasetGenerator {
                 edge.addProperty("v", v);
                 edge.addProperty("w", random.nextInt(10) + 1);
                 edges.add(edge);
+                present.add(edgeKey(u, v));
             }
         }
 
@@ -125,7 +162,7 @@ public class DatasetGenerator {
             int u = random.nextInt(n);
             int v = random.nextInt(n);
 
-            if (u != v && !hasEdge(edges, u, v)) {
+            if (u != v && present.add(edgeKey(u, v))) {
                 JsonObject edge = new JsonObject();
                 edge.addProperty("u", u);
                 edge.addProperty("v", v);
@@ -138,16 +175,11 @@ public class DatasetGenerator {
     }
 
     /**
-     * Check if edge exists
+     * Key of edge (u, v) in the set of generated edges, so duplicate checks are O(1)
+     * instead of a scan over the JSON array
      */
-    private boolean hasEdge(JsonArray edges, int u, int v) {
-        for (int i = 0; i < edges.size(); i++) {
-            JsonObject edge = edges.get(i).getAsJsonObject();
-            if (edge.get("u").getAsInt() == u && edge.get("v").getAsInt() == v) {
-                return true;
-            }
-        }
-        return false;
+    private static long edgeKey(int u, int v) {
+        return ((long) u << 32) | v;
     }
 
     /**
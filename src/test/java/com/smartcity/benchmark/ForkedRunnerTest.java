@@ -0,0 +1,113 @@
+package com.smartcity.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for forked execution and merging of fork results
+ */
+class ForkedRunnerTest {
+
+    private static BenchmarkRunner.BenchmarkResult forkResult(long... sccNanos) {
+        BenchmarkRunner.BenchmarkResult result = new BenchmarkRunner.BenchmarkResult("g.json");
+        LatencyHistogram h = new LatencyHistogram();
+        for (long nanos : sccNanos) {
+            h.record(nanos);
+            result.samples.computeIfAbsent("SCC_Time_Nanos", k -> new ArrayList<>()).add(nanos);
+        }
+        result.phaseHistograms.put("scc", h);
+        result.phaseNanos.put("scc", h.getPercentile(50));
+        result.iterations = sccNanos.length;
+        return result;
+    }
+
+    @Test
+    void testMerge() {
+        BenchmarkRunner.BenchmarkResult merged = ForkedRunner.merge(List.of(
+                forkResult(100, 100, 100), forkResult(120, 120, 120), forkResult(110, 110, 110)));
+
+        assertEquals(3, merged.forks);
+        assertEquals(9, merged.iterations);
+        assertEquals(9, merged.phaseHistograms.get("scc").getCount());
+        assertEquals(9, merged.samples.get("SCC_Time_Nanos").size());
+        assertEquals(110, merged.phaseNanos.get("scc"));
+        assertEquals(110, merged.sccTimeNanos);
+        // Sample stddev of the fork medians 100, 120, 110
+        assertEquals(10.0, merged.phaseForkStddevNanos.get("scc"), 1e-9);
+    }
+
+    @Test
+    void testForkedRun(@TempDir Path tmp) throws Exception {
+        Path data = Files.createDirectory(tmp.resolve("data"));
+        Files.copy(Paths.get("data", "small_dag_1.json"), data.resolve("small_dag_1.json"));
+        System.setProperty(BenchmarkRunner.WARMUP_PROPERTY, "0");
+        System.setProperty(BenchmarkRunner.ITERATIONS_PROPERTY, "1");
+        System.setProperty(BenchmarkRunner.CACHE_DIR_PROPERTY, tmp.resolve("cache").toString());
+        try {
+            ForkedRunner runner = new ForkedRunner(2, 2,
+                    List.of("-Xmx256m"), false, System.getProperty("java.class.path"), 300);
+            List<BenchmarkRunner.BenchmarkResult> results = runner.run(data.toString());
+
+            assertEquals(1, results.size());
+            assertTrue(runner.getFailedDatasets().isEmpty());
+            BenchmarkRunner.BenchmarkResult result = results.get(0);
+            assertEquals("small_dag_1.json", result.dataset);
+            assertEquals(2, result.forks);
+            assertEquals(2, result.iterations);
+            assertTrue(result.sccTimeNanos > 0);
+            assertTrue(result.phaseForkStddevNanos.containsKey("scc"));
+
+            String header = BenchmarkRunner.BenchmarkResult.getCSVHeader(List.of("scc"), true, true);
+            String row = result.toCSV(List.of("scc"), true, true);
+            assertTrue(header.endsWith("Phase_scc_Fork_Stddev_Nanos"));
+            assertEquals(header.split(",").length, row.split(",").length);
+        } finally {
+            System.clearProperty(BenchmarkRunner.WARMUP_PROPERTY);
+            System.clearProperty(BenchmarkRunner.ITERATIONS_PROPERTY);
+            System.clearProperty(BenchmarkRunner.CACHE_DIR_PROPERTY);
+        }
+    }
+
+    @Test
+    void testFailedDatasetIsLeftOut(@TempDir Path tmp) throws Exception {
+        Path data = Files.createDirectory(tmp.resolve("data"));
+        Files.copy(Paths.get("data", "small_dag_1.json"), data.resolve("small_dag_1.json"));
+
+        // Forks cannot find BenchmarkRunner on this classpath and exit with an error
+        ForkedRunner runner = new ForkedRunner(2, 1, List.of("-Xmx64m"), false, tmp.toString(), 300);
+
+        assertTrue(runner.run(data.toString()).isEmpty());
+        assertEquals(List.of("small_dag_1.json"), runner.getFailedDatasets());
+    }
+
+    @Test
+    void testCpuSetsAndHeapSize() {
+        assertEquals(List.of("1-3", "4-6"), ForkedRunner.cpuSets(2, 8));
+        assertEquals(List.of("1", "2", "3"), ForkedRunner.cpuSets(3, 4));
+        assertEquals(List.of("0"), ForkedRunner.cpuSets(1, 1));
+        assertThrows(IllegalArgumentException.class, () -> ForkedRunner.cpuSets(4, 4));
+
+        assertEquals(2L << 30, ForkedRunner.maxHeapBytes(List.of("-Xms1g", "-Xmx2G")));
+        assertEquals(512L << 20, ForkedRunner.maxHeapBytes(List.of("-Xmx512m")));
+        assertEquals(1L << 30, ForkedRunner.maxHeapBytes(List.of("-XX:+UseParallelGC")));
+        assertTrue(ForkedRunner.defaultParallelism(List.of("-Xmx1g")) >= 1);
+    }
+
+    @Test
+    void testRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ForkedRunner(0, 1, List.of(), false, ".", 60));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ForkedRunner(1, 0, List.of(), false, ".", 60));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ForkedRunner(1, 1, List.of(), false, ".", 0));
+    }
+}
@@ -0,0 +1,71 @@
+package com.smartcity.benchmark;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the log-linear latency histogram
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsAreContiguous() {
+        for (int i = 0; i < 5000; i++) {
+            long lower = LatencyHistogram.lowerBound(i);
+            assertEquals(i, LatencyHistogram.indexOf(lower));
+            assertEquals(i, LatencyHistogram.indexOf(LatencyHistogram.lowerBound(i + 1) - 1));
+        }
+        assertEquals(100, LatencyHistogram.indexOf(100));
+    }
+
+    @Test
+    void testPercentilesAndMoments() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getPercentile(50));
+
+        Random random = new Random(42);
+        long[] samples = new long[10_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = 1_000 + random.nextInt(5_000_000);
+            h.record(samples[i]);
+        }
+        Arrays.sort(samples);
+
+        assertEquals(samples.length, h.getCount());
+        assertEquals(samples[0], h.getMin());
+        assertEquals(samples[samples.length - 1], h.getMax());
+        for (double p : new double[]{50, 90, 99}) {
+            long exact = samples[(int) Math.ceil(p / 100 * samples.length) - 1];
+            assertEquals(exact, h.getPercentile(p), exact / 128.0);
+        }
+
+        double mean = Arrays.stream(samples).average().orElse(0);
+        double variance = Arrays.stream(samples).mapToDouble(s -> (s - mean) * (s - mean)).sum()
+                / (samples.length - 1);
+        assertEquals(mean, h.getMean(), 1e-6 * mean);
+        assertEquals(Math.sqrt(variance), h.getStdDev(), 1e-6 * Math.sqrt(variance));
+        assertThrows(IllegalArgumentException.class, () -> h.record(-1));
+    }
+
+    @Test
+    void testMerge() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        LatencyHistogram all = new LatencyHistogram();
+        for (long v = 1; v <= 1000; v++) {
+            (v % 3 == 0 ? a : b).record(v * v);
+            all.record(v * v);
+        }
+        a.merge(b);
+        assertEquals(all.getCount(), a.getCount());
+        assertEquals(all.getMin(), a.getMin());
+        assertEquals(all.getMax(), a.getMax());
+        assertEquals(all.getPercentile(99), a.getPercentile(99));
+        assertEquals(all.getMean(), a.getMean(), 1e-6);
+        assertEquals(all.getStdDev(), a.getStdDev(), 1e-6);
+    }
+}
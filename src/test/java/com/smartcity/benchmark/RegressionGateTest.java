@@ -0,0 +1,110 @@
+package com.smartcity.benchmark;
+
+import com.smartcity.common.GraphCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the baseline regression gate
+ */
+class RegressionGateTest {
+
+    @Test
+    void testLegacyCommaDecimalCsv() throws Exception {
+        // Checked-in file written in a comma-decimal locale: Density "0,0441" spans two fields
+        Map<String, Map<String, RegressionGate.Summary>> baseline =
+                RegressionGate.loadBaseline(Paths.get("benchmark_results.csv"));
+
+        Map<String, RegressionGate.Summary> dag = baseline.get("large_dag_1.json");
+        assertEquals(46600, dag.get("SCC_Time_Nanos").mean);
+        assertEquals(23600, dag.get("Topo_Time_Nanos").mean);
+        assertEquals(11800, dag.get("DAGSP_Time_Nanos").mean);
+        assertEquals(1, dag.get("SCC_Time_Nanos").count);
+        assertNull(dag.get("Density"));
+    }
+
+    @Test
+    void testStatisticalTests() {
+        assertEquals(0.5, RegressionGate.regularizedBeta(0.5, 1, 1), 1e-12);
+        assertEquals(0.5, RegressionGate.normalCdf(0), 1e-7);
+        assertEquals(0.975, RegressionGate.normalCdf(1.959964), 1e-6);
+
+        long[] base = {100, 102, 98, 101, 99, 100, 103, 97, 100, 101};
+        long[] slower = {120, 122, 118, 121, 119, 120, 123, 117, 120, 121};
+        assertTrue(RegressionGate.mannWhitneyPValue(slower, base) < 0.001);
+        assertTrue(RegressionGate.mannWhitneyPValue(base, slower) > 0.99);
+        assertEquals(1.0, RegressionGate.mannWhitneyPValue(new long[]{5, 5}, new long[]{5, 5}));
+
+        // t = 2 / sqrt(0.2) with 18 degrees of freedom
+        RegressionGate.Summary a = new RegressionGate.Summary(10, 12, 1, 12, null);
+        RegressionGate.Summary b = new RegressionGate.Summary(10, 10, 1, 10, null);
+        assertEquals(1.5e-4, RegressionGate.welchPValue(a, b), 0.5e-4);
+        assertEquals(1 - RegressionGate.welchPValue(a, b), RegressionGate.welchPValue(b, a), 1e-9);
+    }
+
+    @Test
+    void testGate() {
+        long[] base = new long[20];
+        long[] same = new long[20];
+        long[] slower = new long[20];
+        for (int i = 0; i < 20; i++) {
+            base[i] = 100_000 + 1_000 * (i % 5);
+            same[i] = 100_500 + 1_000 * (i % 5);
+            slower[i] = 150_000 + 1_000 * (i % 5);
+        }
+        Map<String, Map<String, RegressionGate.Summary>> baseline =
+                Map.of("d.json", Map.of("Phase_scc_Nanos", RegressionGate.Summary.of(base)));
+        RegressionGate gate = new RegressionGate(0.10, 0.05);
+
+        List<RegressionGate.Comparison> ok = gate.compare(baseline,
+                Map.of("d.json", Map.of("Phase_scc_Nanos", RegressionGate.Summary.of(same))));
+        assertEquals(1, ok.size());
+        assertFalse(RegressionGate.hasRegression(ok));
+
+        List<RegressionGate.Comparison> bad = gate.compare(baseline,
+                Map.of("d.json", Map.of("Phase_scc_Nanos", RegressionGate.Summary.of(slower))));
+        assertTrue(RegressionGate.hasRegression(bad));
+        assertEquals("mann-whitney", bad.get(0).test);
+        assertEquals(0.5, bad.get(0).getChange(), 0.01);
+
+        // Unknown datasets and metrics are skipped
+        assertTrue(gate.compare(baseline, Map.of("other.json", Map.of())).isEmpty());
+    }
+
+    @Test
+    void testSamplesRoundTrip(@TempDir Path dir) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner(new GraphCache(dir.resolve("cache")), 0);
+        List<BenchmarkRunner.BenchmarkResult> results = runner.runIterations("data", 0, 3);
+        Path json = dir.resolve("results.json");
+        Path csv = dir.resolve("results.csv");
+        runner.writeResultsToJSON(results, json.toString());
+        runner.writeResultsToCSV(results, csv.toString());
+
+        Map<String, Map<String, RegressionGate.Summary>> fromJson = RegressionGate.loadBaseline(json);
+        RegressionGate.Summary scc = fromJson.get("tasks.json").get("Phase_scc.dfs_Nanos");
+        assertEquals(3, scc.count);
+        assertNotNull(scc.samples);
+
+        Map<String, Map<String, RegressionGate.Summary>> fromCsv = RegressionGate.loadBaseline(csv);
+        RegressionGate.Summary sccCsv = fromCsv.get("tasks.json").get("Phase_scc.dfs_Nanos");
+        assertEquals(3, sccCsv.count);
+        assertNull(sccCsv.samples);
+        assertEquals(scc.mean, sccCsv.mean, 0.1);
+        assertTrue(Files.readAllLines(csv).get(1).split(",").length
+                == Files.readAllLines(csv).get(0).split(",").length);
+
+        // A run compared with itself never regresses
+        List<RegressionGate.Comparison> self =
+                new RegressionGate(0.10, 0.05).compare(fromJson, RegressionGate.summarize(results));
+        assertFalse(self.isEmpty());
+        assertFalse(RegressionGate.hasRegression(self));
+    }
+}
@@ -0,0 +1,62 @@
+package com.smartcity.benchmark;
+
+import com.smartcity.common.CompactGraph;
+import com.smartcity.common.Graph;
+import com.smartcity.common.MetricsFactory;
+import com.smartcity.graph.scc.ParallelSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for per-stage allocation and GC accounting
+ */
+class ResourceUsageTest {
+    private static volatile Object sink;
+
+    @Test
+    void testAllocationIsCounted() {
+        ResourceUsage.Probe probe = ResourceUsage.start();
+        sink = new long[1 << 17];
+        ResourceUsage usage = probe.stop();
+
+        assertNotNull(sink);
+        assertTrue(usage.allocatedBytes >= 8L << 17, usage.toString());
+        assertTrue(usage.gcCount >= 0);
+        assertTrue(usage.gcTimeMillis >= 0);
+        assertTrue(usage.peakHeapBytes > 0);
+    }
+
+    @Test
+    void testWorkersStartedDuringStageAreCounted() throws Exception {
+        // One big cycle: nothing is trimmed, so forward-backward runs over all vertices
+        int n = 200_000;
+        Graph cycle = new Graph(n, true);
+        for (int i = 0; i < n; i++) {
+            cycle.addEdge(i, (i + 1) % n, 1);
+        }
+        CompactGraph graph = CompactGraph.fromGraph(cycle);
+
+        // A fresh pool has no workers when the probe starts
+        ForkJoinPool pool = new ForkJoinPool(2, p -> {
+            ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            worker.setName("resource-test-worker-" + worker.getPoolIndex());
+            return worker;
+        }, null, false);
+        try {
+            ResourceUsage.Probe probe = ResourceUsage.start("resource-test-worker-");
+            int components = pool.submit(() ->
+                    new ParallelSCC(graph, pool, MetricsFactory.NO_OP).findComponents().getComponentCount()).get();
+            ResourceUsage usage = probe.stop();
+
+            assertEquals(1, components);
+            // findComponents alone allocates six int[n] arrays on the worker
+            assertTrue(usage.allocatedBytes > 6L * 4 * n, usage.toString());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
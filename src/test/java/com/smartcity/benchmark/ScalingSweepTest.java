@@ -0,0 +1,58 @@
+package com.smartcity.benchmark;
+
+import com.smartcity.common.GraphCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the scaling sweep and its complexity fit
+ */
+class ScalingSweepTest {
+
+    @Test
+    void testSizes() {
+        assertEquals(List.of(1000, 3162, 10000, 31623, 100000), ScalingSweep.sizes(1000, 100000));
+        assertEquals(List.of(50), ScalingSweep.sizes(50, 60));
+        assertThrows(IllegalArgumentException.class, () -> ScalingSweep.sizes(100, 10));
+    }
+
+    @Test
+    void testFit() {
+        List<ScalingSweep.Point> linear = new ArrayList<>();
+        List<ScalingSweep.Point> quadratic = new ArrayList<>();
+        for (int n = 1000; n <= 1_000_000; n *= 10) {
+            long elements = 9L * n;
+            linear.add(new ScalingSweep.Point(n, 8 * n, 25 * elements));
+            quadratic.add(new ScalingSweep.Point(n, 8 * n, elements * elements / 100));
+        }
+
+        ScalingSweep.Fit fit = ScalingSweep.fit(linear);
+        assertEquals(1.0, fit.slope, 1e-9);
+        assertEquals(Math.log(25), fit.intercept, 1e-9);
+        assertFalse(fit.isSuperLinear());
+        assertEquals(2.0, ScalingSweep.fit(quadratic).slope, 1e-6);
+        assertTrue(ScalingSweep.fit(quadratic).isSuperLinear());
+        assertNull(ScalingSweep.fit(linear.subList(0, 1)));
+    }
+
+    @Test
+    void testRun(@TempDir Path cacheDir) {
+        ScalingSweep sweep = new ScalingSweep(new BenchmarkRunner(new GraphCache(cacheDir), 0), 4, 0, 1);
+        Map<String, List<ScalingSweep.Point>> points = sweep.run(List.of(100, 1000));
+
+        for (String phase : List.of("scc.dfs", "condense", "topo.kahn", "dagsp.relax")) {
+            assertEquals(2, points.get(phase).size(), phase);
+        }
+        ScalingSweep.Point last = points.get("scc").get(1);
+        assertEquals(1000, last.n);
+        assertEquals(4000, last.edges);
+        assertEquals(5000, last.getElements());
+    }
+}
@@ -0,0 +1,78 @@
+package com.smartcity.common;
+
+import com.smartcity.graph.scc.TarjanSCC;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for thread-safe metrics and the metrics factory
+ */
+class ConcurrentMetricsTest {
+
+    @Test
+    void testConcurrentCounters() throws Exception {
+        ConcurrentMetrics metrics = new ConcurrentMetrics();
+        Counter handle = metrics.counter("visits");
+        int threads = 4;
+        int perThread = 100_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        handle.increment();
+                        metrics.increment("by_name");
+                    }
+                    metrics.startPhase("work");
+                    metrics.startPhase("inner");
+                    metrics.endPhase("inner");
+                    metrics.endPhase("work");
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals((long) threads * perThread, metrics.getCount("visits"));
+        assertEquals((long) threads * perThread, metrics.getCount("by_name"));
+        assertEquals(List.of("work", "work.inner"), new ArrayList<>(metrics.getPhases().keySet()));
+        assertTrue(metrics.getPhaseNanos("work") >= metrics.getPhaseNanos("work.inner"));
+        assertThrows(IllegalStateException.class, () -> metrics.endPhase("work"));
+
+        metrics.reset();
+        assertEquals(0, handle.get());
+        handle.add(3);
+        assertEquals(3, metrics.getCount("visits"));
+        assertTrue(metrics.getPhases().isEmpty());
+    }
+
+    @Test
+    void testMetricsFactory() {
+        assertEquals(MetricsFactory.CONCURRENT, MetricsFactory.fromName(" Concurrent "));
+        assertEquals(MetricsFactory.NO_OP, MetricsFactory.fromName("noop"));
+        assertEquals(MetricsFactory.NO_OP, MetricsFactory.fromName("no-op"));
+        assertThrows(IllegalArgumentException.class, () -> MetricsFactory.fromName("striped"));
+        assertSame(NoOpMetrics.INSTANCE, MetricsFactory.NO_OP.create());
+
+        Graph g = new Graph(3, true);
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 0, 1);
+        g.addEdge(1, 2, 1);
+        TarjanSCC scc = new TarjanSCC(g, MetricsFactory.CONCURRENT);
+        assertEquals(2, scc.findSCCs().size());
+        assertTrue(scc.getMetrics() instanceof ConcurrentMetrics);
+        assertEquals(3, scc.getMetrics().getCount("edges_explored"));
+    }
+}
@@ -0,0 +1,114 @@
+package com.smartcity.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static com.smartcity.common.GraphAssertions.assertSameGraph;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Unit tests for the parallel edge list loader
+ */
+class EdgeListLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    private Path write(String name, String content) throws IOException {
+        Path file = dir.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    @Test
+    void testFormats() throws IOException {
+        Path file = write("g.csv",
+                "# SNAP style header\n"
+                        + "% matrix market style comment\n"
+                        + "0 1 5\n"
+                        + "\n"
+                        + "0,2,-3\r\n"
+                        + "  2\t3  # trailing comment\n"
+                        + "3, 0 ,7");
+
+        GraphLoader.GraphData data = GraphLoader.load(file.toString());
+
+        Graph expected = new Graph(4, true);
+        expected.addEdge(0, 1, 5);
+        expected.addEdge(0, 2, -3);
+        expected.addEdge(2, 3, 1);
+        expected.addEdge(3, 0, 7);
+        assertTrue(data.graph instanceof CompactGraph);
+        assertSameGraph(expected, data.graph);
+        assertEquals(0, data.source);
+        assertEquals("edge", data.weightModel);
+    }
+
+    @Test
+    void testHeaderLine() throws IOException {
+        Path csv = write("h.csv", "source,target,weight\n0,1,4\n1,2,6\n");
+        Path tsv = write("h.tsv", "# exported\nfrom\tto\n2\t0\n");
+
+        Graph expected = new Graph(3, true);
+        expected.addEdge(0, 1, 4);
+        expected.addEdge(1, 2, 6);
+        assertSameGraph(expected, EdgeListLoader.load(csv.toString()).graph);
+        assertEquals(1, EdgeListLoader.load(tsv.toString()).graph.getEdgeCount());
+
+        // Only the first data line may be a header
+        Path late = write("late.csv", "0,1\nsource,target\n");
+        assertThrows(IOException.class, () -> EdgeListLoader.load(late.toString()));
+    }
+
+    @Test
+    void testManyChunksMatchSequentialBuild() throws IOException {
+        Random random = new Random(11);
+        int n = 500;
+        int m = 20_000;
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] weight = new int[m];
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < m; k++) {
+            from[k] = random.nextInt(n);
+            to[k] = random.nextInt(n);
+            weight[k] = random.nextInt(100);
+            sb.append(from[k]).append(k % 2 == 0 ? ' ' : '\t').append(to[k]).append(' ').append(weight[k]).append('\n');
+        }
+        Path file = write("big.txt", sb.toString());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Small chunks force many newline-aligned splits
+            assertSameGraph(CompactGraph.fromEdges(n, true, from, to, weight, m),
+                    EdgeListLoader.load(channel, 997, true, pool));
+            assertSameGraph(CompactGraph.fromEdges(n, false, from, to, weight, m),
+                    EdgeListLoader.load(channel, 4096, false, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testMalformedLines() throws IOException {
+        Path missing = write("a.txt", "0 1\n2\n");
+        assertThrows(IOException.class, () -> EdgeListLoader.load(missing.toString()));
+
+        Path letters = write("b.txt", "0 x 1\n");
+        assertThrows(IOException.class, () -> EdgeListLoader.load(letters.toString()));
+
+        Path negative = write("c.txt", "-1 2\n");
+        assertThrows(IOException.class, () -> EdgeListLoader.load(negative.toString()));
+
+        Path overflow = write("d.txt", "0 1 99999999999\n");
+        assertThrows(IOException.class, () -> EdgeListLoader.load(overflow.toString()));
+    }
+}
@@ -0,0 +1,28 @@
+package com.smartcity.common;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Assertions shared by the graph backend and loader tests
+ */
+final class GraphAssertions {
+
+    private GraphAssertions() {
+    }
+
+    /**
+     * Assert both graphs have the same vertices, direction and edges in the same per-vertex order
+     */
+    static void assertSameGraph(GraphView expected, GraphView actual) {
+        assertEquals(expected.getN(), actual.getN());
+        assertEquals(expected.isDirected(), actual.isDirected());
+        assertEquals(expected.getEdgeCount(), actual.getEdgeCount());
+        for (int u = 0; u < expected.getN(); u++) {
+            assertEquals(expected.degree(u), actual.degree(u), "degree of " + u);
+            for (int i = 0; i < expected.degree(u); i++) {
+                assertEquals(expected.target(u, i), actual.target(u, i));
+                assertEquals(expected.weight(u, i), actual.weight(u, i));
+            }
+        }
+    }
+}
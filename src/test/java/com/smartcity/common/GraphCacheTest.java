@@ -0,0 +1,80 @@
+package com.smartcity.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for the graph loader cache
+ */
+class GraphCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testMemoryDiskAndInvalidation() throws IOException {
+        Path file = dir.resolve("graph.json");
+        Files.copy(Paths.get("data/medium_mixed_1.json"), file);
+        Path cacheDir = dir.resolve("cache");
+        GraphLoader.GraphData expected = GraphLoader.loadFromFile(file.toString());
+
+        GraphCache cache = new GraphCache(cacheDir);
+        GraphCache.LoadResult first = cache.load(file.toString());
+        GraphCache.LoadResult second = cache.load(file.toString());
+        assertEquals(GraphCache.Source.PARSED, first.source);
+        assertEquals(GraphCache.Source.MEMORY, second.source);
+        assertSame(first.data, second.data);
+        assertTrue(first.data.graph instanceof CompactGraph);
+
+        // A new process finds the snapshot on disk
+        GraphCache.LoadResult fromDisk = new GraphCache(cacheDir).load(file.toString());
+        assertEquals(GraphCache.Source.DISK, fromDisk.source);
+        // Disk hits serve the mapped snapshot without copying it
+        assertTrue(fromDisk.data.graph instanceof MappedGraph);
+        assertEquals(expected.graph.getEdgeCount(), fromDisk.data.graph.getEdgeCount());
+        assertEquals(expected.source, fromDisk.data.source);
+        for (int u = 0; u < expected.graph.getN(); u++) {
+            assertEquals(expected.graph.degree(u), fromDisk.data.graph.degree(u));
+        }
+
+        // Changing the content changes the key
+        Files.write(file, "{\"n\": 2, \"directed\": true, \"edges\": [{\"u\": 0, \"v\": 1}]}".getBytes());
+        GraphCache.LoadResult changed = cache.load(file.toString());
+        assertEquals(GraphCache.Source.PARSED, changed.source);
+        assertEquals(2, changed.data.graph.getN());
+
+        assertEquals(1, cache.getMetrics().getCount("memory_hits"));
+        assertEquals(2, cache.getMetrics().getCount("misses"));
+
+        // The snapshot of the old content was replaced, not kept next to the new one
+        assertEquals(1, snapshotCount(cacheDir));
+    }
+
+    @Test
+    void testStaleSnapshotsFromEarlierProcesses() throws IOException {
+        Path file = dir.resolve("graph.json");
+        Files.copy(Paths.get("data/small_dag_1.json"), file);
+        Path cacheDir = dir.resolve("cache");
+
+        new GraphCache(cacheDir).load(file.toString());
+        Files.write(file, "{\"n\": 2, \"directed\": true, \"edges\": [{\"u\": 0, \"v\": 1}]}".getBytes());
+
+        // A new process has no memory entry for the old version but still removes its snapshot
+        GraphCache.LoadResult changed = new GraphCache(cacheDir).load(file.toString());
+        assertEquals(GraphCache.Source.PARSED, changed.source);
+        assertEquals(1, snapshotCount(cacheDir));
+    }
+
+    private static long snapshotCount(Path cacheDir) throws IOException {
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            return files.filter(p -> p.toString().endsWith(GraphSnapshot.EXTENSION)).count();
+        }
+    }
+}
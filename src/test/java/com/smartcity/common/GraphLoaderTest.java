@@ -0,0 +1,66 @@
+package com.smartcity.common;
+
+import com.google.gson.JsonSyntaxException;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the streaming JSON graph loader
+ */
+class GraphLoaderTest {
+
+    @Test
+    void testHeaderFirst() {
+        GraphLoader.GraphData data = GraphLoader.loadFromString(
+                "{\"directed\": true, \"n\": 3, \"edges\": [{\"u\": 0, \"v\": 1, \"w\": 4}, {\"u\": 1, \"v\": 2}],"
+                        + " \"source\": 1, \"weight_model\": \"node\"}");
+
+        assertEquals(3, data.graph.getN());
+        assertTrue(data.graph.isDirected());
+        assertEquals(2, data.graph.getEdgeCount());
+        assertEquals(4, data.graph.weight(0, 0));
+        assertEquals(1, data.graph.weight(1, 0)); // Default weight
+        assertEquals(1, data.source);
+        assertEquals("node", data.weightModel);
+    }
+
+    @Test
+    void testEdgesBeforeHeader() {
+        GraphLoader.GraphData data = GraphLoader.loadFromString(
+                "{\"edges\": [{\"w\": 2, \"v\": 1, \"u\": 0}, {\"u\": 1, \"v\": 0, \"extra\": [1, 2]}],"
+                        + " \"comment\": {\"x\": 1}, \"n\": 2, \"directed\": false}");
+
+        assertEquals(2, data.graph.getN());
+        assertFalse(data.graph.isDirected());
+        assertEquals(2, data.graph.getEdgeCount());
+        assertEquals(2, data.graph.degree(0));
+        assertEquals(0, data.source);
+        assertEquals("edge", data.weightModel);
+    }
+
+    @Test
+    void testMissingHeader() {
+        assertThrows(JsonSyntaxException.class,
+                () -> GraphLoader.loadFromString("{\"edges\": []}"));
+        assertThrows(JsonSyntaxException.class,
+                () -> GraphLoader.loadFromString("{\"n\": 2, \"directed\": true, \"edges\": [{\"u\": 0}]}"));
+    }
+
+    @Test
+    void testCompactMatchesGraph() throws Exception {
+        GraphLoader.GraphData list = GraphLoader.loadFromFile("data/medium_mixed_1.json");
+        GraphLoader.GraphData compact = GraphLoader.loadCompactFromFile("data/medium_mixed_1.json");
+
+        assertTrue(compact.graph instanceof CompactGraph);
+        assertEquals(list.graph.getN(), compact.graph.getN());
+        assertEquals(list.graph.getEdgeCount(), compact.graph.getEdgeCount());
+        for (int u = 0; u < list.graph.getN(); u++) {
+            assertEquals(list.graph.degree(u), compact.graph.degree(u));
+            for (int i = 0; i < list.graph.degree(u); i++) {
+                assertEquals(list.graph.target(u, i), compact.graph.target(u, i));
+                assertEquals(list.graph.weight(u, i), compact.graph.weight(u, i));
+            }
+        }
+        assertEquals(list.source, compact.source);
+    }
+}
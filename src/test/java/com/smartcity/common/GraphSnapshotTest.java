@@ -0,0 +1,68 @@
+package com.smartcity.common;
+
+import com.smartcity.graph.scc.TarjanSCC;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static com.smartcity.common.GraphAssertions.assertSameGraph;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Unit tests for binary graph snapshots
+ */
+class GraphSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        GraphLoader.GraphData json = GraphLoader.loadFromFile("data/medium_mixed_1.json");
+        Path file = dir.resolve("medium" + GraphSnapshot.EXTENSION);
+
+        GraphSnapshot.write(json, file);
+        GraphLoader.GraphData snap = GraphLoader.load(file.toString());
+
+        assertTrue(snap.graph instanceof MappedGraph);
+        assertSameGraph(json.graph, snap.graph);
+        assertEquals(json.source, snap.source);
+        assertEquals(json.weightModel, snap.weightModel);
+
+        // Algorithms run directly on the mapped backend
+        assertEquals(new TarjanSCC(json.graph).findSCCs().size(),
+                new TarjanSCC(snap.graph).findSCCs().size());
+    }
+
+    @Test
+    void testUndirectedAndUnicodeModel() throws IOException {
+        Graph g = new Graph(4, false);
+        g.addEdge(0, 1, 3);
+        g.addEdge(2, 3, -2);
+        Path file = dir.resolve("u" + GraphSnapshot.EXTENSION);
+
+        GraphSnapshot.write(new GraphLoader.GraphData(g, 2, "nöde"), file);
+        GraphLoader.GraphData snap = GraphLoader.loadSnapshot(file.toString());
+
+        assertSameGraph(g, snap.graph);
+        assertEquals(2, snap.source);
+        assertEquals("nöde", snap.weightModel);
+    }
+
+    @Test
+    void testRejectsInvalidFiles() throws IOException {
+        Path notSnapshot = dir.resolve("bad" + GraphSnapshot.EXTENSION);
+        Files.write(notSnapshot, new byte[64]);
+        assertThrows(IOException.class, () -> GraphLoader.loadSnapshot(notSnapshot.toString()));
+
+        Graph g = new Graph(3, true);
+        g.addEdge(0, 1, 1);
+        Path file = dir.resolve("t" + GraphSnapshot.EXTENSION);
+        GraphSnapshot.write(new GraphLoader.GraphData(g, 0, "edge"), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 4));
+        assertThrows(IOException.class, () -> GraphLoader.loadSnapshot(file.toString()));
+    }
+}
@@ -0,0 +1,116 @@
+package com.smartcity.common;
+
+import com.smartcity.graph.dagsp.DAGShortestPath;
+import com.smartcity.graph.scc.TarjanSCC;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for metrics counters
+ */
+class MetricsImplTest {
+
+    @Test
+    void testCounterHandles() {
+        MetricsImpl metrics = new MetricsImpl();
+        Counter relax = metrics.counter("relaxations");
+
+        relax.increment();
+        relax.add(5);
+        metrics.increment("relaxations", 2);
+        assertEquals(8, relax.get());
+        assertEquals(8, metrics.getCount("relaxations"));
+
+        // Registering many counters grows the slot array without breaking old handles
+        for (int i = 0; i < 100; i++) {
+            metrics.counter("c" + i).add(i);
+        }
+        relax.increment();
+        assertEquals(9, metrics.getCount("relaxations"));
+        assertEquals(42, metrics.getCount("c42"));
+        assertEquals(0, metrics.getCount("unknown"));
+
+        metrics.reset();
+        assertEquals(0, relax.get());
+        relax.increment();
+        assertEquals(1, metrics.getCount("relaxations"));
+    }
+
+    @Test
+    void testNoOpMetrics() {
+        Graph g = new Graph(4, true);
+        g.addEdge(0, 1, 2);
+        g.addEdge(1, 2, 3);
+        g.addEdge(2, 0, 1);
+        g.addEdge(2, 3, 4);
+
+        TarjanSCC counted = new TarjanSCC(g);
+        TarjanSCC uncounted = new TarjanSCC(g, NoOpMetrics.INSTANCE);
+        assertEquals(counted.findSCCs(), uncounted.findSCCs());
+        assertEquals(4, counted.getMetrics().getCount("edges_explored"));
+        assertEquals(0, uncounted.getMetrics().getCount("edges_explored"));
+
+        Graph dag = new Graph(3, true);
+        dag.addEdge(0, 1, 2);
+        dag.addEdge(1, 2, 3);
+        DAGShortestPath sp = new DAGShortestPath(dag, NoOpMetrics.INSTANCE);
+        assertEquals(5, sp.shortestPaths(0).dist[2]);
+        assertEquals(0, sp.getMetrics().getElapsedNanos());
+        assertEquals(0, NoOpMetrics.INSTANCE.counter("relaxations").get());
+    }
+
+    @Test
+    void testNestedPhases() {
+        MetricsImpl metrics = new MetricsImpl();
+        metrics.startPhase("topo");
+        metrics.startPhase("indegree");
+        metrics.endPhase("indegree");
+        metrics.startPhase("kahn");
+        assertThrows(IllegalStateException.class, () -> metrics.endPhase("topo"));
+        metrics.endPhase("kahn");
+        metrics.endPhase("topo");
+        metrics.startPhase("topo");
+        metrics.startPhase("kahn");
+        metrics.endPhase("kahn");
+        metrics.endPhase("topo");
+
+        assertEquals(java.util.List.of("topo", "topo.indegree", "topo.kahn"),
+                new java.util.ArrayList<>(metrics.getPhases().keySet()));
+        assertTrue(metrics.getPhaseNanos("topo") >= metrics.getPhaseNanos("topo.kahn"));
+        assertEquals(0, metrics.getPhaseNanos("dagsp"));
+        assertThrows(IllegalStateException.class, () -> metrics.endPhase("topo"));
+
+        metrics.reset();
+        assertTrue(metrics.getPhases().isEmpty());
+
+        // Only a whole last segment matches; cached paths are reused after reset
+        metrics.startPhase("topo");
+        metrics.startPhase("xkahn");
+        assertThrows(IllegalStateException.class, () -> metrics.endPhase("kahn"));
+        metrics.endPhase("xkahn");
+        metrics.endPhase("topo");
+        assertEquals(java.util.List.of("topo", "topo.xkahn"),
+                new java.util.ArrayList<>(metrics.getPhases().keySet()));
+        assertTrue(MetricsImpl.isLeaf("topo.kahn", "kahn"));
+        assertFalse(MetricsImpl.isLeaf("kahn", "topo.kahn"));
+    }
+
+    @Test
+    void testAlgorithmPhases() {
+        Graph g = new Graph(3, true);
+        g.addEdge(0, 1, 2);
+        g.addEdge(1, 2, 3);
+
+        TarjanSCC tarjan = new TarjanSCC(g);
+        tarjan.findComponents();
+        tarjan.buildCondensationGraph();
+        assertTrue(tarjan.getMetrics().getPhases().keySet()
+                .containsAll(java.util.List.of("scc", "scc.init", "scc.dfs", "condense")));
+
+        // The plan is built inside the timed query
+        DAGShortestPath sp = new DAGShortestPath(g);
+        sp.shortestPaths(0);
+        assertTrue(sp.getMetrics().getPhases().keySet()
+                .containsAll(java.util.List.of("dagsp", "dagsp.plan", "dagsp.relax")));
+    }
+}
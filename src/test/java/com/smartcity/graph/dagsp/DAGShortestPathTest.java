@@ -1,5 +1,6 @@
 package com.smartcity.graph.dagsp;
 
+import com.smartcity.common.CompactGraph;
 import com.smartcity.common.Graph;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
@@ -157,4 +158,115 @@ class DAGShortestPathTest {
         DAGShortestPath.CriticalPathResult critical = sp.findCriticalPath(0);
         assertEquals(9, critical.length); // 0->2->4->5 = 3+5+1
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCompactGraphBackend() {
+        // Diamond from testMultiplePathsShortestWins in CSR form
+        Graph g = new Graph(4, true);
+        g.addEdge(0, 1, 1);
+        g.addEdge(0, 2, 5);
+        g.addEdge(1, 3, 1);
+        g.addEdge(2, 3, 1);
+        CompactGraph compact = CompactGraph.fromGraph(g);
+
+        DAGShortestPath sp = new DAGShortestPath(compact);
+        assertArrayEquals(new DAGShortestPath(g).shortestPaths(0).dist, sp.shortestPaths(0).dist);
+        assertEquals(6, sp.longestPaths(0).dist[3]);
+    }
+
+    @Test
+    void testSharedPlan() {
+        // Same DAG as testComplexDAG, queried from several sources through one plan
+        Graph g = new Graph(6, true);
+        g.addEdge(0, 1, 2);
+        g.addEdge(0, 2, 3);
+        g.addEdge(1, 3, 4);
+        g.addEdge(2, 3, 1);
+        g.addEdge(2, 4, 5);
+        g.addEdge(3, 5, 2);
+        g.addEdge(4, 5, 1);
+
+        DagPlan plan = new DagPlan(g);
+        DAGShortestPath sp = new DAGShortestPath(plan);
+        assertSame(plan, sp.getPlan());
+
+        for (int source = 0; source < 6; source++) {
+            assertArrayEquals(new DAGShortestPath(g).shortestPaths(source).dist, sp.shortestPaths(source).dist);
+            assertArrayEquals(new DAGShortestPath(g).longestPaths(source).dist, sp.longestPaths(source).dist);
+        }
+
+        // Plan without positions sweeps the whole order
+        DagPlan minimal = new DagPlan(g, false, true);
+        assertFalse(minimal.hasPositions());
+        assertEquals(7, minimal.getReverse().getEdgeCount());
+        assertEquals(4, new DAGShortestPath(minimal).shortestPaths(0).dist[3]);
+    }
+
+    @Test
+    void testPlanRejectsCycle() {
+        Graph g = new Graph(3, true);
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 0, 1);
+
+        assertThrows(IllegalStateException.class, () -> new DagPlan(g));
+        assertThrows(IllegalStateException.class, () -> new DAGShortestPath(g).shortestPaths(0));
+    }
+
+    @Test
+    void testBatchPaths() {
+        // Same DAG as testComplexDAG
+        Graph g = new Graph(6, true);
+        g.addEdge(0, 1, 2);
+        g.addEdge(0, 2, 3);
+        g.addEdge(1, 3, 4);
+        g.addEdge(2, 3, 1);
+        g.addEdge(2, 4, 5);
+        g.addEdge(3, 5, 2);
+        g.addEdge(4, 5, 1);
+
+        int[] sources = {0, 2, 5};
+        DAGShortestPath sp = new DAGShortestPath(g);
+        DAGShortestPath.DistanceMatrix shortest = sp.batchShortestPaths(sources);
+        DAGShortestPath.DistanceMatrix longest = sp.batchLongestPaths(sources);
+
+        assertEquals(3 * 6, shortest.dist.length);
+        for (int row = 0; row < sources.length; row++) {
+            int[] expectedShort = new DAGShortestPath(g).shortestPaths(sources[row]).dist;
+            int[] expectedLong = new DAGShortestPath(g).longestPaths(sources[row]).dist;
+            for (int v = 0; v < 6; v++) {
+                assertEquals(expectedShort[v], shortest.get(row, v));
+                assertEquals(expectedLong[v], longest.get(row, v));
+            }
+        }
+        assertEquals(9, longest.get(0, 5));
+        assertEquals(Integer.MAX_VALUE, shortest.get(2, 0));
+    }
+
+    @Test
+    void testBatchPathsManySources() {
+        // Layered random DAG, every vertex as a source, to spread rows over worker tasks
+        int n = 2_000;
+        java.util.Random random = new java.util.Random(3);
+        Graph g = new Graph(n, true);
+        for (int u = 0; u < n - 1; u++) {
+            for (int k = 0; k < 3; k++) {
+                g.addEdge(u, u + 1 + random.nextInt(Math.min(20, n - u - 1)), random.nextInt(10) + 1);
+            }
+        }
+        int[] sources = new int[n];
+        for (int i = 0; i < n; i++) {
+            sources[i] = i;
+        }
+
+        DAGShortestPath sp = new DAGShortestPath(g);
+        DAGShortestPath.DistanceMatrix matrix = sp.batchShortestPaths(sources);
+
+        for (int row : new int[]{0, 17, 999, n - 1}) {
+            int[] expected = new DAGShortestPath(g).shortestPaths(row).dist;
+            for (int v = 0; v < n; v++) {
+                assertEquals(expected[v], matrix.get(row, v));
+            }
+        }
+    }
+}
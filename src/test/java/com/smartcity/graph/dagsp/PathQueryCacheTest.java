@@ -0,0 +1,81 @@
+package com.smartcity.graph.dagsp;
+
+import com.smartcity.common.Graph;
+import com.smartcity.common.MetricsFactory;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the path query cache
+ */
+class PathQueryCacheTest {
+
+    private Graph chain(int n) {
+        Graph g = new Graph(n, true);
+        for (int i = 0; i < n - 1; i++) {
+            g.addEdge(i, i + 1, 1);
+        }
+        return g;
+    }
+
+    @Test
+    void testHitsAndMisses() {
+        Graph g = chain(5);
+        PathQueryCache cache = new PathQueryCache(new DAGShortestPath(g), 1 << 20);
+
+        DAGShortestPath.PathResult first = cache.shortestPaths(0);
+        DAGShortestPath.PathResult second = cache.shortestPaths(0);
+        DAGShortestPath.PathResult longest = cache.longestPaths(0);
+
+        assertSame(first, second);
+        assertNotSame(first, longest);
+        assertEquals(4, first.dist[4]);
+        assertEquals(1, cache.getMetrics().getCount("cache_hits"));
+        assertEquals(2, cache.getMetrics().getCount("cache_misses"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testLruEvictionByBytes() {
+        Graph g = chain(100);
+        // Room for two results of 2 * 100 ints plus overhead, not three
+        PathQueryCache cache = new PathQueryCache(new DAGShortestPath(g), 2 * (800 + 96) + 100);
+
+        DAGShortestPath.PathResult r0 = cache.shortestPaths(0);
+        cache.shortestPaths(1);
+        cache.shortestPaths(0); // 0 becomes most recently used
+        cache.shortestPaths(2); // evicts 1
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getMetrics().getCount("cache_evictions"));
+        assertTrue(cache.getUsedBytes() <= cache.getMaxBytes());
+        assertSame(r0, cache.shortestPaths(0));
+
+        cache.shortestPaths(1);
+        assertEquals(4, cache.getMetrics().getCount("cache_misses"));
+    }
+
+    @Test
+    void testInvalidatedByAddEdge() {
+        Graph g = chain(4);
+        PathQueryCache cache = new PathQueryCache(new DAGShortestPath(g), 1 << 20);
+
+        assertEquals(3, cache.shortestPaths(0).dist[3]);
+
+        g.addEdge(0, 3, 1);
+        assertEquals(1, cache.shortestPaths(0).dist[3]);
+        assertEquals(2, cache.getMetrics().getCount("cache_misses"));
+        assertEquals(1, cache.getMetrics().getCount("cache_invalidations"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testMetricsFactory() {
+        Graph g = chain(5);
+        PathQueryCache cache = new PathQueryCache(new DAGShortestPath(g), 1 << 20, MetricsFactory.NO_OP);
+
+        assertSame(cache.shortestPaths(0), cache.shortestPaths(0));
+        assertEquals(0, cache.getMetrics().getCount("cache_hits"));
+        assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,108 @@
+package com.smartcity.graph.scc;
+
+import com.smartcity.common.Graph;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Unit tests for the parallel forward-backward SCC algorithm
+ */
+class ParallelSCCTest {
+
+    @Test
+    void testSimpleCycle() {
+        // Graph: 0 -> 1 -> 2 -> 0 (one SCC)
+        Graph g = new Graph(3, true);
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 0, 1);
+
+        ParallelSCC scc = new ParallelSCC(g);
+        List<List<Integer>> sccs = scc.findSCCs();
+
+        assertEquals(1, sccs.size());
+        assertEquals(Arrays.asList(0, 1, 2), sccs.get(0));
+    }
+
+    @Test
+    void testCondensationGraph() {
+        // Graph: (0 -> 1 -> 2 -> 1) -> 3
+        Graph g = new Graph(4, true);
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 2);
+        g.addEdge(2, 1, 1);
+        g.addEdge(2, 3, 3);
+
+        ParallelSCC scc = new ParallelSCC(g);
+        List<List<Integer>> sccs = scc.findSCCs();
+
+        // Components are numbered by smallest vertex
+        assertEquals(Arrays.asList(Arrays.asList(0), Arrays.asList(1, 2), Arrays.asList(3)), sccs);
+        assertArrayEquals(new int[]{0, 1, 1, 2}, scc.getVertexToSCCMapping());
+
+        Graph condensation = scc.buildCondensationGraph();
+        assertEquals(3, condensation.getN());
+        assertEquals(2, condensation.getEdgeCount());
+    }
+
+    @Test
+    void testSelfLoopsAndEmptyGraph() {
+        Graph g = new Graph(2, true);
+        g.addEdge(0, 0, 1);
+        g.addEdge(0, 1, 1);
+        assertEquals(2, new ParallelSCC(g).findSCCs().size());
+
+        assertTrue(new ParallelSCC(new Graph(0, true)).findSCCs().isEmpty());
+    }
+
+    @Test
+    void testMatchesTarjanOnRandomGraphs() {
+        Random random = new Random(7);
+        int[][] shapes = {{50, 120}, {2_000, 3_000}, {20_000, 40_000}, {60_000, 90_000}};
+        for (int[] shape : shapes) {
+            Graph g = randomGraph(random, shape[0], shape[1]);
+            assertEquals(partition(new TarjanSCC(g).findSCCs()),
+                    partition(new ParallelSCC(g).findSCCs()));
+        }
+    }
+
+    @Test
+    void testLongChainBetweenCycles() {
+        // Two 3-cycles joined by a long chain: trimming must peel the chain, not FB pivots
+        int n = 200_000;
+        Graph g = new Graph(n, true);
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 0, 1);
+        for (int i = 2; i < n - 1; i++) {
+            g.addEdge(i, i + 1, 1);
+        }
+        g.addEdge(n - 1, n - 2, 1);
+        g.addEdge(n - 2, n - 3, 1);
+        g.addEdge(n - 3, n - 1, 1);
+
+        ParallelSCC scc = new ParallelSCC(g);
+        List<List<Integer>> sccs = scc.findSCCs();
+
+        assertEquals(partition(new TarjanSCC(g).findSCCs()), partition(sccs));
+        assertEquals(n - 4, sccs.size());
+    }
+
+    private static Graph randomGraph(Random random, int n, int m) {
+        Graph g = new Graph(n, true);
+        for (int i = 0; i < m; i++) {
+            g.addEdge(random.nextInt(n), random.nextInt(n), random.nextInt(10) + 1);
+        }
+        return g;
+    }
+
+    private static Set<Set<Integer>> partition(List<List<Integer>> sccs) {
+        Set<Set<Integer>> result = new HashSet<>();
+        for (List<Integer> scc : sccs) {
+            result.add(new HashSet<>(scc));
+        }
+        return result;
+    }
+}
@@ -1,5 +1,6 @@
 package com.smartcity.graph.scc;
 
+import com.smartcity.common.CompactGraph;
 import com.smartcity.common.Graph;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
@@ -121,4 +122,99 @@ class TarjanSCCTest {
         assertEquals(3, sccs.get(0).size());
         assertEquals(3, sccs.get(1).size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCompactGraphBackend() {
+        // Same graph as testCondensationGraph, stored in CSR form
+        Graph g = new Graph(4, true);
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 2);
+        g.addEdge(2, 1, 1);
+        g.addEdge(2, 3, 3);
+
+        List<List<Integer>> expected = new TarjanSCC(g).findSCCs();
+
+        TarjanSCC scc = new TarjanSCC(CompactGraph.fromGraph(g));
+        List<List<Integer>> sccs = scc.findSCCs();
+
+        assertEquals(expected, sccs);
+        assertEquals(3, scc.buildCondensationGraph().getN());
+    }
+
+    @Test
+    void testDeepChain() {
+        // 0 -> 1 -> ... -> n-1 -> 0: one SCC far deeper than the default thread stack allows recursively
+        int n = 500_000;
+        Graph g = new Graph(n, true);
+        for (int i = 0; i < n - 1; i++) {
+            g.addEdge(i, i + 1, 1);
+        }
+        g.addEdge(n - 1, 0, 1);
+
+        TarjanSCC scc = new TarjanSCC(g);
+        List<List<Integer>> sccs = scc.findSCCs();
+
+        assertEquals(1, sccs.size());
+        assertEquals(n, sccs.get(0).size());
+
+        // Without the back edge every vertex is its own SCC, sinks first
+        Graph chain = new Graph(n, true);
+        for (int i = 0; i < n - 1; i++) {
+            chain.addEdge(i, i + 1, 1);
+        }
+        List<List<Integer>> singletons = new TarjanSCC(chain).findSCCs();
+        assertEquals(n, singletons.size());
+        assertEquals(n - 1, singletons.get(0).get(0).intValue());
+    }
+
+    @Test
+    void testCondensationWeightPolicy() {
+        // (0 <-> 1) -> 2 via two parallel edges with weights 5 and 2
+        Graph g = new Graph(3, true);
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 0, 1);
+        g.addEdge(0, 2, 5);
+        g.addEdge(1, 2, 2);
+
+        TarjanSCC scc = new TarjanSCC(g);
+        scc.findSCCs();
+        int[] mapping = scc.getVertexToSCCMapping();
+        int from = mapping[0];
+        int to = mapping[2];
+
+        Graph first = scc.buildCondensationGraph();
+        assertEquals(1, first.getEdgeCount());
+        assertEquals(to, first.target(from, 0));
+        assertEquals(5, first.weight(from, 0));
+
+        assertEquals(2, scc.buildCondensationGraph(CondensationBuilder.WeightPolicy.MIN).weight(from, 0));
+        assertEquals(5, scc.buildCondensationGraph(CondensationBuilder.WeightPolicy.MAX).weight(from, 0));
+        assertEquals(7, scc.buildCondensationGraph(CondensationBuilder.WeightPolicy.SUM).weight(from, 0));
+    }
+
+    @Test
+    void testCompactResult() {
+        // Graph: (0 -> 1 -> 2 -> 1) -> 3
+        Graph g = new Graph(4, true);
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 2);
+        g.addEdge(2, 1, 1);
+        g.addEdge(2, 3, 3);
+
+        TarjanSCC scc = new TarjanSCC(g);
+        SccResult result = scc.findComponents();
+
+        // Tarjan completes sinks first: {3}, {1,2}, {0}
+        assertEquals(3, result.getComponentCount());
+        assertArrayEquals(new int[]{0, 1, 3, 4}, result.getOffsets());
+        assertArrayEquals(new int[]{2, 1, 1, 0}, result.getComponentOf());
+        assertEquals(2, result.size(1));
+        assertSame(result.getComponentOf(), scc.getVertexToSCCMapping());
+
+        // Lazy list view matches the arrays
+        List<List<Integer>> lists = result.asLists();
+        assertEquals(List.of(3), lists.get(0));
+        assertEquals(List.of(0), lists.get(2));
+        assertEquals(result.member(1, 0), lists.get(1).get(0).intValue());
+    }
+}
@@ -1,6 +1,8 @@
 package com.smartcity.graph.topo;
 
+import com.smartcity.common.CompactGraph;
 import com.smartcity.common.Graph;
+import com.smartcity.graph.scc.SccResult;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -154,4 +156,116 @@ class TopologicalSortTest {
         assertTrue(order.indexOf(2) < order.indexOf(3));
         assertTrue(order.indexOf(3) < order.indexOf(1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCompactGraphBackend() {
+        // Edge arrays for 0 -> {1,2} -> 3
+        int[] from = {0, 0, 1, 2};
+        int[] to = {1, 2, 3, 3};
+        int[] w = {1, 1, 1, 1};
+        CompactGraph g = CompactGraph.fromEdges(4, true, from, to, w, from.length);
+
+        TopologicalSort ts = new TopologicalSort(g);
+        List<Integer> order = ts.sort();
+
+        assertNotNull(order);
+        assertEquals(0, order.get(0).intValue());
+        assertEquals(3, order.get(3).intValue());
+
+        // Reversed edges flip the order: 3 first, 0 last
+        List<Integer> reversed = new TopologicalSort(g.getReverse()).sort();
+        assertNotNull(reversed);
+        assertEquals(3, reversed.get(0).intValue());
+        assertEquals(0, reversed.get(3).intValue());
+    }
+
+    @Test
+    void testExpandSCCOrder() {
+        // Components {2, 0} and {1}: offsets [0, 2, 3]
+        SccResult sccs = new SccResult(new int[]{0, 1, 0}, new int[]{0, 2, 3}, new int[]{2, 0, 1});
+
+        List<Integer> expanded = TopologicalSort.expandSCCOrder(List.of(1, 0), sccs);
+
+        assertEquals(List.of(1, 2, 0), expanded);
+    }
+
+    @Test
+    void testSortIntoReusableBuffer() {
+        // Diamond: 0 -> {1,2} -> 3
+        Graph g = new Graph(4, true);
+        g.addEdge(0, 1, 1);
+        g.addEdge(0, 2, 1);
+        g.addEdge(1, 3, 1);
+        g.addEdge(2, 3, 1);
+
+        TopologicalSort ts = new TopologicalSort(g);
+        int[] order = new int[4];
+
+        // Repeated sorts into the same buffer give the same order
+        assertTrue(ts.sortInto(order));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, order);
+        assertTrue(ts.sortInto(order));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, ts.sortToArray());
+
+        g.addEdge(3, 0, 1);
+        assertFalse(ts.sortInto(order));
+        assertNull(ts.sortToArray());
+        assertThrows(IllegalArgumentException.class, () -> ts.sortInto(new int[3]));
+    }
+
+    @Test
+    void testLayers() {
+        // Same DAG as testComplexDAG: levels {4,5}, {0,2}, {3}, {1}
+        Graph g = new Graph(6, true);
+        g.addEdge(5, 2, 1);
+        g.addEdge(5, 0, 1);
+        g.addEdge(4, 0, 1);
+        g.addEdge(4, 1, 1);
+        g.addEdge(2, 3, 1);
+        g.addEdge(3, 1, 1);
+
+        TopologicalSort ts = new TopologicalSort(g);
+        TopologicalSort.Layers layers = ts.sortLayers();
+
+        assertNotNull(layers);
+        assertEquals(4, layers.getLevelCount());
+        assertEquals(List.of(4, 5), layers.getLevel(0));
+        assertEquals(List.of(0, 2), layers.getLevel(1));
+        assertEquals(List.of(3), layers.getLevel(2));
+        assertEquals(List.of(1), layers.getLevel(3));
+        assertEquals(4, ts.getMetrics().getCount("levels"));
+        assertEquals(2, ts.getMetrics().getCount("max_level_width"));
+        assertEquals(2, ts.getMetrics().getCount("level_width_le_1"));
+        assertEquals(2, ts.getMetrics().getCount("level_width_le_2"));
+
+        // Counters describe the last call, not the sum of calls
+        ts.sortLayers();
+        assertEquals(4, ts.getMetrics().getCount("levels"));
+        assertEquals(2, ts.getMetrics().getCount("max_level_width"));
+        assertEquals(2, ts.getMetrics().getCount("level_width_le_2"));
+
+        g.addEdge(1, 5, 1);
+        assertNull(new TopologicalSort(g).sortLayers());
+    }
+
+    @Test
+    void testLayersOnWideGraph() {
+        // Wide levels exercise the parallel frontier path: 3 layers of 10,000 vertices
+        int width = 10_000;
+        Graph g = new Graph(3 * width, true);
+        for (int i = 0; i < width; i++) {
+            g.addEdge(i, width + (i * 7) % width, 1);
+            g.addEdge(width + i, 2 * width + (i * 13) % width, 1);
+            g.addEdge(i, 2 * width + i, 1);
+        }
+
+        TopologicalSort.Layers layers = new TopologicalSort(g).sortLayers();
+
+        assertNotNull(layers);
+        assertEquals(3, layers.getLevelCount());
+        for (int k = 0; k < 3; k++) {
+            assertEquals(width, layers.getLevelWidth(k));
+            assertEquals(k * width, layers.getLevel(k).get(0).intValue());
+        }
+    }
+}
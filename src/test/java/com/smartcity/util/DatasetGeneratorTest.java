@@ -0,0 +1,31 @@
+package com.smartcity.util;
+
+import com.smartcity.common.Graph;
+import com.smartcity.graph.scc.TarjanSCC;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for dataset generation
+ */
+class DatasetGeneratorTest {
+
+    @Test
+    void testGenerateGraph() {
+        Graph dag = new DatasetGenerator(7).generateGraph(1000, 8000, false);
+        assertEquals(1000, dag.getN());
+        assertEquals(8000, dag.getEdgeCount());
+        for (int u = 0; u < dag.getN(); u++) {
+            for (int i = 0; i < dag.degree(u); i++) {
+                assertTrue(dag.target(u, i) > u, "DAG edges must go to higher indices");
+            }
+        }
+        assertEquals(1000, new TarjanSCC(dag).findComponents().getComponentCount());
+
+        Graph cyclic = new DatasetGenerator(7).generateGraph(1000, 8000, true);
+        assertEquals(8000, cyclic.getEdgeCount());
+        assertTrue(new TarjanSCC(cyclic).findComponents().getComponentCount() < 1000);
+        assertThrows(IllegalArgumentException.class, () -> new DatasetGenerator(7).generateGraph(1, 0, true));
+    }
+}